@@ -2,13 +2,20 @@ package duke;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 
+import duke.command.DukeEvents;
+import duke.command.SessionTrace;
 import duke.command.Storage;
 import duke.command.TaskList;
 import duke.command.Ui;
+import duke.command.Workspaces;
 import duke.exception.DukeException;
 
 enum Action {
+    Archive,
     Bye,
     Deadline,
     Delete,
@@ -16,18 +23,26 @@ enum Action {
     Find,
     List,
     Mark,
+    Next,
+    Summary,
     Todo,
     Undo,
     Unmark,
+    Upcoming,
+    Use,
 }
 
 /**
  * Represents a Duke
  */
 public class Duke {
-    private Storage storage;
-    private TaskList tasks;
+    private static final int CACHED_WORKSPACES = Integer.getInteger("duke.workspaces.cached", 4);
+    private static final long BATCH_NANOS = Long.getLong("duke.batch.millis", 1000) * 1_000_000;
+
+    private Workspaces workspaces;
     private Ui ui;
+    private Path transcriptPath;
+    private Storage watched;
 
     /**
      * Initializes a Duke with given information
@@ -37,8 +52,8 @@ public class Duke {
      */
     public Duke(String filepath) throws FileNotFoundException {
         ui = new Ui();
-        storage = new Storage(filepath);
-        tasks = new TaskList(storage.load());
+        workspaces = new Workspaces(Paths.get(filepath), CACHED_WORKSPACES);
+        transcriptPath = Paths.get(filepath).resolveSibling("transcript.txt");
     }
 
     /**
@@ -46,28 +61,111 @@ public class Duke {
      */
     public Duke() {
         ui = new Ui();
-        storage = new Storage("./data/tasks.txt");
-        tasks = new TaskList(storage.load());
+        workspaces = new Workspaces(Paths.get("./data/tasks.txt"), CACHED_WORKSPACES);
+        transcriptPath = Paths.get("./data/transcript.txt");
     }
 
+    /**
+     * Returns where the GUI keeps the conversation, next to the data file.
+     *
+     * @return path of the transcript file.
+     */
+    public Path getTranscriptPath() {
+        return transcriptPath;
+    }
 
-    private void run() {
-        ui.showWelcome();
-        TaskList listOfAction = tasks;
-        Storage file = storage;
-        String s = "";
+    /**
+     * Returns the task list in use.
+     *
+     * @return current task list.
+     */
+    public TaskList getTaskList() {
+        return workspaces.current().getTasks();
+    }
 
-        String[] arr = ui.getInput();
-        s = arr[0];
+    /**
+     * Calls onChange whenever another Duke saves the task list in use, e.g. the CLI while the GUI is open.
+     * The task list is not changed until {@link #reload()} is called.
+     *
+     * @param onChange called on a background thread.
+     */
+    public void watch(Runnable onChange) {
+        Storage storage = workspaces.current().getStorage();
+        if (watched != null) {
+            watched.stopWatching();
+        }
+        try {
+            storage.watch(onChange);
+            watched = storage;
+        } catch (IOException e) {
+            System.out.println("Kyle cannot watch the data file: " + e.getMessage());
+            watched = null;
+        }
+    }
 
-        while (!s.equals("bye")) {
-            String remaining = "";
-            try {
+    /**
+     * Applies what other Dukes saved to the task list in use, and tells its subscribers.
+     *
+     * @return whether the task list changed.
+     */
+    public boolean reload() {
+        TaskList listOfAction = workspaces.current().getTasks();
+        Storage file = workspaces.current().getStorage();
+        try (Storage.Lock lock = file.lock()) {
+            return file.reload(listOfAction);
+        } catch (DukeException e) {
+            System.out.println(e.getMessage());
+            return false;
+        } finally {
+            listOfAction.publishChanges();
+        }
+    }
+
+    /**
+     * Answers commands read from the standard input until bye or the end of the input.
+     * When commands are piped in rather than typed, only the answers are shown, and commands that have already
+     * arrived are run as a batch that is saved once, at most {@code duke.batch.millis} (1000 by default) apart.
+     */
+    private void run() {
+        boolean isInteractive = System.console() != null;
+        if (isInteractive) {
+            ui.showWelcome();
+        }
+        reportStartup("first prompt");
+        Storage batch = null;
+        long batchStart = 0;
+
+        for (String line = ui.readLine(); line != null; line = ui.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] arr = ui.getInput(line);
+            String s = arr[0];
+            if (s.equals("bye")) {
+                break;
+            }
+            TaskList listOfAction = workspaces.current().getTasks();
+            Storage file = workspaces.current().getStorage();
+            if (batch != null && batch != file) {
+                flush(batch);
+                batch = null;
+            }
+            DukeEvents.Command event = new DukeEvents.Command();
+            event.begin();
+            String outcome = "ok";
+            try (Storage.Lock lock = file.lock()) {
+                file.reload(listOfAction);
                 Action myAction = Action.valueOf(String.valueOf(s.charAt(0)).toUpperCase()
                         + s.substring(1));
                 switch (myAction) {
                 case Find:
-                    ui.says(ui.findWord(listOfAction, arr, listOfAction.checkWord(arr[1])));
+                    if (arr.length > 1 && arr[1].equals("/all")) {
+                        ui.says(ui.findAll(workspaces, arr));
+                    } else if (arr.length > 1 && arr[1].equals("/archive")) {
+                        ui.says(ui.findArchived(workspaces.current(), arr));
+                    } else {
+                        ui.says(ui.findWord(listOfAction, arr));
+                    }
                     break;
 
                 case Bye:
@@ -79,7 +177,7 @@ public class Duke {
                     break;
 
                 case List:
-                    ui.says(ui.list(listOfAction));
+                    ui.says(ui.list(listOfAction, arr));
                     break;
 
                 case Mark:
@@ -99,44 +197,104 @@ public class Duke {
                     break;
 
                 case Deadline:
-                    ui.says(ui.addDeadline(listOfAction, arr));
+                    ui.says(ui.addDeadline(listOfAction, line));
                     break;
 
                 case Event:
-                    ui.says(ui.addEvent(listOfAction, arr));
+                    ui.says(ui.addEvent(listOfAction, line));
+                    break;
+
+                case Upcoming:
+                    ui.says(ui.upcoming(listOfAction, arr));
+                    break;
+
+                case Next:
+                    ui.says(ui.next(listOfAction, arr));
+                    break;
+
+                case Summary:
+                    ui.says(ui.summary(listOfAction, arr));
+                    break;
+
+                case Use:
+                    ui.says(ui.use(workspaces, arr));
+                    break;
+
+                case Archive:
+                    ui.says(ui.archive(workspaces.current(), arr));
                     break;
 
                 default:
                     ui.says(ui.showUnknownError());
                 }
+                if (!isInteractive && ui.hasPendingInput()
+                        && (batch == null || System.nanoTime() - batchStart < BATCH_NANOS)) {
+                    if (batch == null) {
+                        batch = file;
+                        batchStart = System.nanoTime();
+                    }
+                    file.defer(listOfAction);
+                } else {
+                    file.overwrite(listOfAction);
+                    batch = null;
+                }
             } catch (IllegalArgumentException e) {
-                ui.showUnknownError();
-            } catch (DukeException error) {
-                ui.says(error.getMessage());
-            }
-            try {
-                file.overwrite(listOfAction);
-                arr = ui.getInput();
-                s = arr[0];
+                outcome = "unknown";
+                ui.says(ui.showUnknownError());
             } catch (DukeException error) {
+                outcome = error.getClass().getSimpleName();
                 ui.says(error.getMessage());
             }
+            record(event, s, outcome, listOfAction);
+            listOfAction.publishChanges();
+        }
+        if (batch != null) {
+            flush(batch);
         }
         ui.bye();
+        ui.flush();
+    }
+
+    private static void record(DukeEvents.Command event, String verb, String outcome, TaskList tasks) {
+        if (event.shouldCommit()) {
+            event.verb = verb;
+            event.outcome = outcome;
+            event.tasks = tasks.getValidLen();
+            event.commit();
+        }
+    }
+
+    private void flush(Storage batch) {
+        try {
+            batch.flush();
+        } catch (DukeException error) {
+            ui.says(error.getMessage());
+        }
     }
 
     public String getResponse(String input) {
-        TaskList listOfAction = tasks;
-        Storage file = storage;
+        SessionTrace.record(input);
+        TaskList listOfAction = workspaces.current().getTasks();
+        Storage file = workspaces.current().getStorage();
         String[] arr = ui.getInput(input);
         String s = arr[0];
         String response = "";
-        try {
+        DukeEvents.Command event = new DukeEvents.Command();
+        event.begin();
+        String outcome = "ok";
+        try (Storage.Lock lock = file.lock()) {
+            file.reload(listOfAction);
             Action myAction = Action.valueOf(String.valueOf(s.charAt(0)).toUpperCase()
                     + s.substring(1));
             switch (myAction) {
             case Find:
-                response = (ui.findWord(listOfAction, arr, listOfAction.checkWord(arr[1])));
+                if (arr.length > 1 && arr[1].equals("/all")) {
+                    response = (ui.findAll(workspaces, arr));
+                } else if (arr.length > 1 && arr[1].equals("/archive")) {
+                    response = (ui.findArchived(workspaces.current(), arr));
+                } else {
+                    response = (ui.findWord(listOfAction, arr));
+                }
                 break;
 
             case Bye:
@@ -148,7 +306,7 @@ public class Duke {
                 break;
 
             case List:
-                response = (ui.list(listOfAction));
+                response = (ui.list(listOfAction, arr));
                 break;
 
             case Mark:
@@ -168,11 +326,31 @@ public class Duke {
                 break;
 
             case Deadline:
-                response = (ui.addDeadline(listOfAction, arr));
+                response = (ui.addDeadline(listOfAction, input));
                 break;
 
             case Event:
-                response = (ui.addEvent(listOfAction, arr));
+                response = (ui.addEvent(listOfAction, input));
+                break;
+
+            case Upcoming:
+                response = (ui.upcoming(listOfAction, arr));
+                break;
+
+            case Next:
+                response = (ui.next(listOfAction, arr));
+                break;
+
+            case Summary:
+                response = (ui.summary(listOfAction, arr));
+                break;
+
+            case Use:
+                response = (ui.use(workspaces, arr));
+                break;
+
+            case Archive:
+                response = (ui.archive(workspaces.current(), arr));
                 break;
 
             default:
@@ -181,12 +359,43 @@ public class Duke {
             }
             file.overwrite(listOfAction);
         } catch (IllegalArgumentException e) {
+            outcome = "unknown";
             return ui.showUnknownError();
         } catch (DukeException e) {
+            outcome = e.getClass().getSimpleName();
             return (e.getMessage());
+        } finally {
+            record(event, s, outcome, listOfAction);
+            listOfAction.publishChanges();
         }
         return response;
     }
+
+    /**
+     * Prints to the standard error how long after it was started Duke reached the given point, e.g. "first prompt".
+     * Duke is started with {@code -Dduke.startup.report=<epoch millis>} by a script that knows when it ran, or with
+     * {@code -Dduke.startup.report=true} to count from the start of the process as the system reports it.
+     *
+     * @param milestone point reached.
+     */
+    static void reportStartup(String milestone) {
+        String report = System.getProperty("duke.startup.report");
+        if (report == null || report.equals("false")) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long start = report.chars().allMatch(Character::isDigit) && !report.isEmpty()
+                ? Long.parseLong(report)
+                : ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(now);
+        System.err.println("duke.startup " + milestone + " " + (now - start) + " ms");
+    }
+
+    /**
+     * Runs Duke in the terminal. Nothing here loads JavaFX, so this starts faster than the GUI.
+     *
+     * @param args ignored.
+     * @throws IOException if the standard input cannot be read.
+     */
     public static void main(String[] args) throws IOException {
         new Duke("./data/tasks.txt").run();
     }
@@ -1,12 +1,25 @@
 package duke;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * Starts the GUI, or the CLI when given {@code --cli} (or {@code -Dduke.cli=true}). The CLI path never touches a
+ * JavaFX class, so none of JavaFX is loaded for it.
  */
 public class Launcher {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (Boolean.getBoolean("duke.cli") || Arrays.asList(args).contains("--cli")) {
+            Duke.main(args);
+        } else {
+            launchGui(args);
+        }
+    }
+
+    private static void launchGui(String[] args) {
         Application.launch(Main.class, args);
     }
 }
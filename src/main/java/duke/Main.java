@@ -3,6 +3,7 @@ package duke;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
@@ -24,6 +25,12 @@ public class Main extends Application {
             Scene scene = new Scene(ap);
             stage.setScene(scene);
             fxmlLoader.<MainWindow>getController().setDuke(duke);
+            stage.setOnShown(event -> Platform.runLater(() -> {
+                Duke.reportStartup("first frame");
+                if (Boolean.getBoolean("duke.startup.exit")) {
+                    Platform.exit();
+                }
+            }));
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
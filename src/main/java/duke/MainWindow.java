@@ -1,17 +1,53 @@
 package duke;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import duke.command.CompletionTrie;
+import duke.command.IncrementalFilter;
+import duke.command.TaskEvent;
+import duke.command.TaskList;
+import duke.command.Transcript;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 /**
  * Controller for MainWindow. Provides the layout for the other controls.
  */
 public class MainWindow extends AnchorPane {
+    private static final int MAX_PENDING = 64;
+    private static final int REFRESH_SLOTS = 2;
+    private static final double PENDING_OPACITY = 0.6;
+    private static final int SHOWN_MESSAGES = 200;
+    private static final int PAGE = 50;
+    private static final int SUGGESTIONS = 5;
+    private static final Duration FILTER_DELAY = Duration.millis(150);
+    private static final String[] FLAGS = {"/by", "/from", "/to", "/every", "/until", "/times", "/type", "/done",
+        "/before", "/after", "/has", "/sort", "/limit", "/all", "/archive"};
+
     @FXML
     private ScrollPane scrollPane;
     @FXML
@@ -20,8 +56,37 @@ public class MainWindow extends AnchorPane {
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private TextField filterInput;
+    @FXML
+    private ListView<String> filterResults;
 
     private Duke duke;
+    private Transcript transcript;
+    private boolean isFollowing = true;
+    private boolean hasNewer;
+
+    private final CompletionTrie verbs = new CompletionTrie(SUGGESTIONS);
+    private final CompletionTrie flags = new CompletionTrie(SUGGESTIONS);
+    private final CompletionTrie words = new CompletionTrie(SUGGESTIONS);
+    private final ContextMenu suggestions = new ContextMenu();
+    private TaskList followed;
+    private WordFollower follower;
+
+    private final IncrementalFilter filter = new IncrementalFilter();
+    private final AtomicLong filterGeneration = new AtomicLong();
+    private final PauseTransition filterDelay = new PauseTransition(FILTER_DELAY);
+    private volatile String filterQuery = "";
+    private final AtomicBoolean isFilterQueued = new AtomicBoolean();
+    private final AtomicBoolean isReloadQueued = new AtomicBoolean();
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING + REFRESH_SLOTS), runnable -> {
+                Thread thread = new Thread(runnable, "duke-commands");
+                thread.setDaemon(true);
+                return thread;
+            });
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/newGru.png"));
     private Image dukeImage = new Image(this.getClass().getResourceAsStream("/images/GruDuke.png"));
@@ -29,33 +94,426 @@ public class MainWindow extends AnchorPane {
     private String welcomeMessage = "WOOF! Bello Boss!\nThe Minions are so useless, let Kyle assist you!\n"
             + "What can Kyle do for you today?";
     private String exitMessage = "WOOF WOOF WOOF! Kyle is sad to see you leave!";
+    private String busyMessage = "WOOF! Kyle could not take that command, please send it again!";
 
     @FXML
     private void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
-        DialogBox firstDialogBox = DialogBox.getDukeDialog(welcomeMessage, dukeImage);
-        dialogContainer.getChildren().add(firstDialogBox);
+        dialogContainer.heightProperty().addListener((observable, oldHeight, newHeight) -> {
+            if (isFollowing) {
+                scrollPane.setVvalue(scrollPane.getVmax());
+            }
+        });
+        scrollPane.vvalueProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue.doubleValue() <= scrollPane.getVmin() && oldValue.doubleValue() > newValue.doubleValue()) {
+                showOlder();
+            } else if (hasNewer && newValue.doubleValue() >= scrollPane.getVmax()
+                    && oldValue.doubleValue() < newValue.doubleValue()) {
+                showNewer();
+            }
+        });
+        for (Action action : Action.values()) {
+            verbs.add(action.name().toLowerCase());
+        }
+        for (String flag : FLAGS) {
+            flags.add(flag);
+        }
+        userInput.textProperty().addListener((observable, oldText, newText) -> suggest(newText));
+        filterDelay.setOnFinished(event -> refreshFilter());
+        filterInput.textProperty().addListener((observable, oldText, newText) -> {
+            filterGeneration.incrementAndGet();
+            filterDelay.playFromStart();
+        });
     }
 
+    /**
+     * Sets the Duke that answers the user, and shows the end of the conversation so far from its transcript.
+     *
+     * @param d Duke to talk to.
+     */
     public void setDuke(Duke d) {
         duke = d;
+        followWords();
+        d.watch(this::reloadLater);
+        try {
+            transcript = new Transcript(d.getTranscriptPath(), SHOWN_MESSAGES);
+            for (Transcript.Message message : transcript.recent()) {
+                dialogContainer.getChildren().add(dialogFor(message));
+            }
+        } catch (IOException e) {
+            System.err.println("Kyle cannot open the transcript: " + e.getMessage());
+        }
+        DialogBox firstDialogBox = DialogBox.getDukeDialog(welcomeMessage, dukeImage);
+        dialogContainer.getChildren().add(firstDialogBox);
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Shows the user's input straight away and hands the command to a single background thread, so commands
+     * run one at a time, in the order they were sent, without blocking the JavaFX thread. Duke's reply is
+     * placed right after the input it answers once it is ready. When {@value #MAX_PENDING} commands are
+     * waiting, input is disabled until half of them have been answered. A command the thread refuses is
+     * answered straight away with an apology instead.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = duke.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, dukeImage)
-        );
+        if (hasNewer) {
+            showLatest();
+        }
+        DialogBox userDialog = DialogBox.getUserDialog(input, userImage);
+        userDialog.setOpacity(PENDING_OPACITY);
+        isFollowing = true;
+        dialogContainer.getChildren().add(userDialog);
+        trim();
         userInput.clear();
+        if (pending.incrementAndGet() >= MAX_PENDING) {
+            setInputDisabled(true);
+        }
+        try {
+            executor.execute(() -> {
+                String response = null;
+                try {
+                    response = duke.getResponse(input);
+                    if (duke.getTaskList() != followed) {
+                        followWords();
+                        duke.watch(this::reloadLater);
+                    }
+                } finally {
+                    String reply = response;
+                    Platform.runLater(() -> showResponse(userDialog, input, reply));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            showResponse(userDialog, input, busyMessage);
+        }
+    }
+
+    private void showResponse(DialogBox userDialog, String input, String response) {
+        List<Node> dialogs = dialogContainer.getChildren();
+        int index = dialogs.size() - 1;
+        while (index >= 0 && dialogs.get(index) != userDialog) {
+            index--;
+        }
+        userDialog.setOpacity(1);
+        if (pending.decrementAndGet() <= MAX_PENDING / 2) {
+            setInputDisabled(false);
+        }
+        if (response == null) {
+            return;
+        }
+        if (!filterInput.getText().isEmpty()) {
+            refreshFilter();
+        }
+        DialogBox dukeDialog = DialogBox.getDukeDialog(response, dukeImage);
+        dialogs.add(index + 1, dukeDialog);
+        record(userDialog, true, input);
+        record(dukeDialog, false, response);
         if (response.equals(exitMessage)) {
             System.exit(0);
         }
     }
+
+    /**
+     * Adds a message to the transcript, remembering where it starts so older messages can be paged in above it.
+     * A message and its reply are recorded together, so the transcript keeps the order they are shown in.
+     */
+    private void record(DialogBox dialog, boolean isFromUser, String text) {
+        if (transcript == null) {
+            return;
+        }
+        try {
+            dialog.setUserData(transcript.add(isFromUser, text).getPosition());
+        } catch (IOException e) {
+            System.err.println("Kyle stopped writing the transcript: " + e.getMessage());
+            transcript = null;
+        }
+    }
+
+    private DialogBox dialogFor(Transcript.Message message) {
+        DialogBox dialog = message.isFromUser()
+                ? DialogBox.getUserDialog(message.getText(), userImage)
+                : DialogBox.getDukeDialog(message.getText(), dukeImage);
+        dialog.setUserData(message.getPosition());
+        return dialog;
+    }
+
+    /**
+     * Drops the oldest dialog boxes once more than {@value #SHOWN_MESSAGES} are shown.
+     * They stay in the transcript and are paged back in when the user scrolls up to them.
+     */
+    private void trim() {
+        List<Node> dialogs = dialogContainer.getChildren();
+        if (dialogs.size() > SHOWN_MESSAGES) {
+            dialogs.remove(0, dialogs.size() - SHOWN_MESSAGES);
+        }
+    }
+
+    /**
+     * Reads the page of messages before the oldest one shown from the transcript and puts it on top,
+     * keeping what the user was looking at in place. The newest dialogs are dropped to keep at most
+     * {@value #SHOWN_MESSAGES} shown; scrolling back down pages them in again. Waits while commands are
+     * pending, so a dialog still waiting for its reply is never dropped.
+     */
+    private void showOlder() {
+        if (transcript == null || pending.get() > 0) {
+            return;
+        }
+        List<Node> dialogs = dialogContainer.getChildren();
+        int index = 0;
+        while (index < dialogs.size() && !(dialogs.get(index).getUserData() instanceof Long)) {
+            index++;
+        }
+        long before = index < dialogs.size() ? (Long) dialogs.get(index).getUserData() : Long.MAX_VALUE;
+        List<Transcript.Message> page;
+        try {
+            page = transcript.older(before, PAGE);
+        } catch (IOException e) {
+            System.err.println("Kyle cannot read the transcript: " + e.getMessage());
+            return;
+        }
+        if (page.isEmpty()) {
+            return;
+        }
+        double oldHeight = dialogContainer.getHeight();
+        isFollowing = false;
+        for (int i = page.size() - 1; i >= 0; i--) {
+            dialogs.add(index, dialogFor(page.get(i)));
+        }
+        scrollPane.layout();
+        double addedHeight = dialogContainer.getHeight() - oldHeight;
+        if (dialogs.size() > SHOWN_MESSAGES) {
+            dialogs.remove(SHOWN_MESSAGES, dialogs.size());
+            hasNewer = true;
+            scrollPane.layout();
+        }
+        double scrollable = dialogContainer.getHeight() - scrollPane.getViewportBounds().getHeight();
+        if (scrollable > 0) {
+            scrollPane.setVvalue(scrollPane.getVmax() * Math.min(1, addedHeight / scrollable));
+        }
+    }
+
+    /**
+     * Reads the page of messages after the newest one shown from the transcript and puts it at the bottom,
+     * dropping as many of the oldest dialogs and keeping what the user was looking at in place.
+     */
+    private void showNewer() {
+        List<Node> dialogs = dialogContainer.getChildren();
+        int index = dialogs.size() - 1;
+        while (index >= 0 && !(dialogs.get(index).getUserData() instanceof Long)) {
+            index--;
+        }
+        long after = index >= 0 ? (Long) dialogs.get(index).getUserData() : -1;
+        List<Transcript.Message> page;
+        try {
+            page = transcript.newer(after, PAGE);
+        } catch (IOException e) {
+            System.err.println("Kyle cannot read the transcript: " + e.getMessage());
+            return;
+        }
+        hasNewer = page.size() == PAGE;
+        if (page.isEmpty()) {
+            return;
+        }
+        double viewport = scrollPane.getViewportBounds().getHeight();
+        double top = scrollPane.getVvalue() / scrollPane.getVmax() * (dialogContainer.getHeight() - viewport);
+        for (Transcript.Message message : page) {
+            dialogs.add(dialogFor(message));
+        }
+        int dropped = Math.max(0, dialogs.size() - SHOWN_MESSAGES);
+        for (int i = 0; i < dropped; i++) {
+            top -= dialogs.get(i).getBoundsInParent().getHeight() + dialogContainer.getSpacing();
+        }
+        dialogs.remove(0, dropped);
+        scrollPane.layout();
+        double scrollable = dialogContainer.getHeight() - viewport;
+        if (scrollable > 0) {
+            scrollPane.setVvalue(scrollPane.getVmax() * Math.max(0, Math.min(1, top / scrollable)));
+        }
+    }
+
+    /**
+     * Shows the newest messages again after older ones were paged in, so new input follows them.
+     */
+    private void showLatest() {
+        hasNewer = false;
+        List<Node> latest = new ArrayList<>();
+        for (Transcript.Message message : transcript.recent()) {
+            latest.add(dialogFor(message));
+        }
+        dialogContainer.getChildren().setAll(latest);
+    }
+
+    /**
+     * Picks up what another Duke saved to the data file, on the command thread, so it never runs alongside
+     * a command. If commands are queued, the first of them picks it up instead. At most one reload waits
+     * on the thread at a time, in a slot of its own, so reloads never crowd out commands.
+     */
+    private void reloadLater() {
+        if (!isReloadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                isReloadQueued.set(false);
+                if (duke.reload()) {
+                    Platform.runLater(() -> {
+                        if (!filterInput.getText().isEmpty()) {
+                            refreshFilter();
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            isReloadQueued.set(false);
+        }
+    }
+
+    /**
+     * Searches the task list for the filter text once typing has paused, on the command thread, so the search
+     * never runs alongside a command that changes the list. Typing again cancels a search still running;
+     * a search that extends the previous filter text only looks through the previous matches.
+     * At most one search waits on the thread at a time, in a slot of its own, and it searches for the
+     * latest filter text when it starts.
+     */
+    private void refreshFilter() {
+        filterQuery = filterInput.getText();
+        filterGeneration.incrementAndGet();
+        if (!isFilterQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::runFilter);
+        } catch (RejectedExecutionException e) {
+            isFilterQueued.set(false);
+            filterDelay.playFromStart();
+        }
+    }
+
+    private void runFilter() {
+        isFilterQueued.set(false);
+        long generation = filterGeneration.get();
+        String query = filterQuery;
+        List<String> found = filter.filter(duke.getTaskList(), query, () -> filterGeneration.get() != generation);
+        if (found != null) {
+            Platform.runLater(() -> {
+                if (filterGeneration.get() == generation) {
+                    filterResults.getItems().setAll(found);
+                }
+            });
+        }
+    }
+
+    /**
+     * Shows completions for the word being typed: a command for the first word, a flag for a word starting
+     * with "/", and otherwise a word from the details of existing tasks.
+     */
+    private void suggest(String text) {
+        int start = text.lastIndexOf(' ') + 1;
+        String prefix = text.substring(start);
+        List<String> found;
+        if (prefix.isEmpty()) {
+            found = List.of();
+        } else if (start == 0) {
+            found = verbs.complete(prefix.toLowerCase());
+        } else if (prefix.startsWith("/")) {
+            found = flags.complete(prefix);
+        } else {
+            found = words.complete(prefix);
+        }
+        suggestions.getItems().clear();
+        for (String word : found) {
+            if (word.equals(prefix)) {
+                continue;
+            }
+            MenuItem item = new MenuItem(word);
+            item.setOnAction(event -> {
+                userInput.setText(text.substring(0, start) + word + " ");
+                userInput.positionCaret(userInput.getText().length());
+            });
+            suggestions.getItems().add(item);
+        }
+        if (suggestions.getItems().isEmpty()) {
+            suggestions.hide();
+        } else if (!suggestions.isShowing()) {
+            suggestions.show(userInput, Side.TOP, 0, 0);
+        }
+    }
+
+    /**
+     * Fills the word completions from the task list in use and keeps them in step with its changes.
+     * Called again whenever another task list is put in use.
+     */
+    private void followWords() {
+        if (follower != null) {
+            follower.cancel();
+        }
+        followed = duke.getTaskList();
+        words.clear();
+        for (String line : followed.readTaskList()) {
+            TaskList.detailWords(line).forEach(words::add);
+        }
+        follower = new WordFollower();
+        followed.subscribe(follower);
+    }
+
+    /**
+     * Adds the words of added and restored tasks to the completions, and removes those of removed tasks.
+     */
+    private class WordFollower implements Flow.Subscriber<List<TaskEvent>> {
+        private volatile boolean isCancelled;
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (isCancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(List<TaskEvent> events) {
+            for (TaskEvent event : events) {
+                if (isCancelled) {
+                    return;
+                }
+                switch (event.getKind()) {
+                case ADDED:
+                case RESTORED:
+                    TaskList.detailWords(event.getLine()).forEach(words::add);
+                    break;
+                case REMOVED:
+                    TaskList.detailWords(event.getOldLine()).forEach(words::remove);
+                    break;
+                case CLEARED:
+                    words.clear();
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Kyle stopped following the task list: " + throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            isCancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private void setInputDisabled(boolean isDisabled) {
+        userInput.setDisable(isDisabled);
+        sendButton.setDisable(isDisabled);
+    }
 }
@@ -0,0 +1,117 @@
+package duke.command;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Keeps archived tasks in a compressed, append-only file next to the task list's data file.
+ * Each archive run appends whole blocks, so nothing already written is ever rewritten. A block holds up to
+ * {@value #BLOCK_LINES} lines of the form "2026-10-19 [D][X] detail  (by: ...)", the first word being the
+ * day the task was archived, compressed with a Deflater and prefixed by its raw and compressed sizes.
+ * Searching inflates one block at a time, so memory does not depend on the size of the archive.
+ */
+public class Archive {
+    private static final int BLOCK_LINES = 4096;
+
+    private final Path path;
+
+    /**
+     * Initializes a new Archive object
+     * @param path archive file, created on the first archive run
+     */
+    public Archive(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Appends the given task lines to the archive.
+     *
+     * @param lines stored lines of the archived tasks.
+     * @param archivedOn day the tasks are archived.
+     * @throws IOException if the archive cannot be written.
+     */
+    public void append(List<String> lines, LocalDate archivedOn) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(blocks);
+        for (int start = 0; start < lines.size(); start += BLOCK_LINES) {
+            StringBuilder text = new StringBuilder();
+            for (String line : lines.subList(start, Math.min(start + BLOCK_LINES, lines.size()))) {
+                text.append(archivedOn).append(' ').append(line).append('\n');
+            }
+            byte[] raw = text.toString().getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+                deflate.write(raw);
+            } finally {
+                deflater.end();
+            }
+            out.writeInt(raw.length);
+            out.writeInt(compressed.size());
+            compressed.writeTo(out);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            blocks.writeTo(file);
+        }
+    }
+
+    /**
+     * Returns the archived lines that contain the given keyword, oldest first.
+     * A block cut short, e.g. by a crash while appending, ends the search.
+     *
+     * @param keyword word to look for.
+     * @return matching lines, each starting with the day the task was archived.
+     * @throws IOException if the archive cannot be read.
+     */
+    public List<String> find(String keyword) throws IOException {
+        List<String> res = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return res;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte[] compressed;
+                try {
+                    in.readInt();
+                    compressed = new byte[in.readInt()];
+                    in.readFully(compressed);
+                } catch (EOFException e) {
+                    break;
+                }
+                try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                        new InflaterInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8))) {
+                    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                        if (line.indexOf(keyword, line.indexOf(' ') + 1) >= 0) {
+                            res.add(line);
+                        }
+                    }
+                }
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,519 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A B+tree from long keys to strings, kept in a {@link PageFile}.
+ * Leaves hold the entries in key order and are chained left to right; inner pages only hold keys to steer by.
+ * Putting or deleting one entry rewrites the pages on its path from the root, usually just its leaf.
+ * Values longer than {@value #MAX_INLINE} bytes are kept in a chain of overflow pages.
+ * A page left less than half full by a delete is merged with a neighbour when the two fit in one page, and the
+ * page emptied by the merge is freed for reuse; an inner page that does not fit borrows a key from its neighbour
+ * instead. A root left with a single child is replaced by it, and an empty root leaf is freed.
+ *
+ * <p>Leaf page: type (byte), entry count (short at 2), next leaf (int at 4), then entries of key (long),
+ * length (short) and UTF-8 bytes, or length -1 followed by the first overflow page and the total length (ints).
+ * Inner page: type (byte), key count (short at 2), first child (int at 4), then pairs of key (long) and the
+ * child holding keys from that key up (int).
+ * Overflow page: type (byte), next overflow page (int at 4), then bytes.
+ */
+class BPlusTree {
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final byte OVERFLOW = 3;
+    private static final int HEADER = 8;
+    private static final int MAX_INLINE = 1024;
+    private static final int OVERFLOW_DATA = PageFile.PAGE_SIZE - HEADER;
+    private static final int MAX_KEYS = (PageFile.PAGE_SIZE - HEADER) / 12;
+    private static final int NONE = -1;
+
+    private final PageFile file;
+
+    BPlusTree(PageFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the value of the key.
+     *
+     * @param key key to look up.
+     * @return value, or null if the key is not in the tree.
+     * @throws IOException if a page cannot be read.
+     */
+    String get(long key) throws IOException {
+        if (file.root() == NONE) {
+            return null;
+        }
+        Leaf leaf = readLeaf(findLeaf(key));
+        int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+        return i < 0 ? null : decode(leaf.values[i]);
+    }
+
+    /**
+     * Sets the value of the key, adding the key if it is not in the tree.
+     *
+     * @param key key to set.
+     * @param value new value.
+     * @throws IOException if a page cannot be read or written.
+     */
+    void put(long key, String value) throws IOException {
+        Stored stored = encode(value);
+        if (file.root() == NONE) {
+            int page = file.allocate().number;
+            writeLeaf(page, new Leaf());
+            file.setRoot(page);
+        }
+        Split split = put(file.root(), key, stored);
+        if (split != null) {
+            Inner root = new Inner();
+            root.children[0] = file.root();
+            root.keys[0] = split.key;
+            root.children[1] = split.page;
+            root.size = 1;
+            int page = file.allocate().number;
+            writeInner(page, root);
+            file.setRoot(page);
+        }
+    }
+
+    private Split put(int page, long key, Stored stored) throws IOException {
+        if (file.get(page).data.get(0) == LEAF) {
+            Leaf leaf = readLeaf(page);
+            int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+            if (i >= 0) {
+                freeOverflow(leaf.values[i]);
+                leaf.values[i] = stored;
+            } else {
+                leaf.insert(-i - 1, key, stored);
+            }
+            if (leaf.bytes() <= PageFile.PAGE_SIZE) {
+                writeLeaf(page, leaf);
+                return null;
+            }
+            Leaf right = leaf.splitOff();
+            int rightPage = file.allocate().number;
+            right.next = leaf.next;
+            leaf.next = rightPage;
+            writeLeaf(rightPage, right);
+            writeLeaf(page, leaf);
+            return new Split(right.keys[0], rightPage);
+        }
+        Inner inner = readInner(page);
+        int child = inner.childIndex(key);
+        Split split = put(inner.children[child], key, stored);
+        if (split == null) {
+            return null;
+        }
+        inner.insert(child, split.key, split.page);
+        if (inner.size <= MAX_KEYS) {
+            writeInner(page, inner);
+            return null;
+        }
+        int mid = inner.size / 2;
+        long separator = inner.keys[mid];
+        Inner right = inner.splitOff(mid);
+        int rightPage = file.allocate().number;
+        writeInner(rightPage, right);
+        writeInner(page, inner);
+        return new Split(separator, rightPage);
+    }
+
+    /**
+     * Removes the key and its value, if the key is in the tree.
+     *
+     * @param key key to remove.
+     * @throws IOException if a page cannot be read or written.
+     */
+    void delete(long key) throws IOException {
+        int root = file.root();
+        if (root == NONE) {
+            return;
+        }
+        delete(root, key);
+        ByteBuffer data = file.get(root).data;
+        if (data.get(0) == INNER && data.getShort(2) == 0) {
+            file.setRoot(data.getInt(4));
+            file.free(root);
+        } else if (data.get(0) == LEAF && data.getShort(2) == 0) {
+            file.setRoot(NONE);
+            file.free(root);
+        }
+    }
+
+    /**
+     * Removes the key from below the given page, and returns whether the page is left less than half full,
+     * so its parent can merge it with a neighbour.
+     */
+    private boolean delete(int page, long key) throws IOException {
+        if (file.get(page).data.get(0) == LEAF) {
+            Leaf leaf = readLeaf(page);
+            int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+            if (i < 0) {
+                return false;
+            }
+            freeOverflow(leaf.values[i]);
+            leaf.remove(i);
+            writeLeaf(page, leaf);
+            return leaf.bytes() <= PageFile.PAGE_SIZE / 2;
+        }
+        Inner inner = readInner(page);
+        int child = inner.childIndex(key);
+        if (!delete(inner.children[child], key)) {
+            return false;
+        }
+        int left = child > 0 ? child - 1 : child;
+        if (inner.size > 0 && (merge(inner, left) || rotate(inner, left, child == left))) {
+            writeInner(page, inner);
+        }
+        return inner.size < MAX_KEYS / 2;
+    }
+
+    /**
+     * Moves everything in the child after left into the child at left, if it fits in one page, and frees the
+     * emptied page. Leaves stay chained, as the merged leaf takes over the next leaf of the freed one.
+     */
+    private boolean merge(Inner parent, int left) throws IOException {
+        int leftPage = parent.children[left];
+        int rightPage = parent.children[left + 1];
+        if (file.get(leftPage).data.get(0) == LEAF) {
+            Leaf a = readLeaf(leftPage);
+            Leaf b = readLeaf(rightPage);
+            if (a.bytes() + b.bytes() - HEADER > PageFile.PAGE_SIZE) {
+                return false;
+            }
+            for (int i = 0; i < b.size; i++) {
+                a.insert(a.size, b.keys[i], b.values[i]);
+            }
+            a.next = b.next;
+            writeLeaf(leftPage, a);
+        } else {
+            Inner a = readInner(leftPage);
+            Inner b = readInner(rightPage);
+            if (a.size + 1 + b.size > MAX_KEYS) {
+                return false;
+            }
+            a.keys[a.size] = parent.keys[left];
+            System.arraycopy(b.keys, 0, a.keys, a.size + 1, b.size);
+            System.arraycopy(b.children, 0, a.children, a.size + 1, b.size + 1);
+            a.size += b.size + 1;
+            writeInner(leftPage, a);
+        }
+        parent.remove(left);
+        file.free(rightPage);
+        return true;
+    }
+
+    /**
+     * Moves one key from the fuller of two neighbouring inner pages to the other, through the key between them
+     * in the parent, when they are too full to merge. Leaves too full to merge are left as they are.
+     */
+    private boolean rotate(Inner parent, int left, boolean isLeftShort) throws IOException {
+        int leftPage = parent.children[left];
+        int rightPage = parent.children[left + 1];
+        if (file.get(leftPage).data.get(0) == LEAF) {
+            return false;
+        }
+        Inner a = readInner(leftPage);
+        Inner b = readInner(rightPage);
+        if (isLeftShort) {
+            a.keys[a.size] = parent.keys[left];
+            a.children[a.size + 1] = b.children[0];
+            a.size++;
+            parent.keys[left] = b.keys[0];
+            System.arraycopy(b.keys, 1, b.keys, 0, b.size - 1);
+            System.arraycopy(b.children, 1, b.children, 0, b.size);
+            b.size--;
+        } else {
+            System.arraycopy(b.keys, 0, b.keys, 1, b.size);
+            System.arraycopy(b.children, 0, b.children, 1, b.size + 1);
+            b.keys[0] = parent.keys[left];
+            b.children[0] = a.children[a.size];
+            b.size++;
+            parent.keys[left] = a.keys[a.size - 1];
+            a.size--;
+        }
+        writeInner(leftPage, a);
+        writeInner(rightPage, b);
+        return true;
+    }
+
+    /**
+     * Returns every entry in key order, walking the chain of leaves.
+     *
+     * @param keys receives the keys.
+     * @param values receives the values, in the same order.
+     * @throws IOException if a page cannot be read.
+     */
+    void scan(List<Long> keys, List<String> values) throws IOException {
+        if (file.root() == NONE) {
+            return;
+        }
+        int page = file.root();
+        while (file.get(page).data.get(0) == INNER) {
+            page = readInner(page).children[0];
+        }
+        while (page != NONE) {
+            Leaf leaf = readLeaf(page);
+            for (int i = 0; i < leaf.size; i++) {
+                keys.add(leaf.keys[i]);
+                values.add(decode(leaf.values[i]));
+            }
+            page = leaf.next;
+        }
+    }
+
+    private int findLeaf(long key) throws IOException {
+        int page = file.root();
+        while (file.get(page).data.get(0) == INNER) {
+            Inner inner = readInner(page);
+            page = inner.children[inner.childIndex(key)];
+        }
+        return page;
+    }
+
+    /**
+     * Returns what a leaf keeps for the value, writing long values to overflow pages first.
+     */
+    private Stored encode(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_INLINE) {
+            return new Stored(bytes, false);
+        }
+        int first = NONE;
+        for (int start = (bytes.length - 1) / OVERFLOW_DATA * OVERFLOW_DATA; start >= 0; start -= OVERFLOW_DATA) {
+            PageFile.Page page = file.allocate();
+            page.data.put(0, OVERFLOW).putInt(4, first);
+            ByteBuffer view = page.data.duplicate();
+            view.position(HEADER);
+            view.put(bytes, start, Math.min(OVERFLOW_DATA, bytes.length - start));
+            first = page.number;
+        }
+        return new Stored(ByteBuffer.allocate(8).putInt(first).putInt(bytes.length).array(), true);
+    }
+
+    private String decode(Stored stored) throws IOException {
+        if (!stored.isPointer) {
+            return new String(stored.bytes, StandardCharsets.UTF_8);
+        }
+        ByteBuffer pointer = ByteBuffer.wrap(stored.bytes);
+        int page = pointer.getInt();
+        byte[] bytes = new byte[pointer.getInt()];
+        for (int start = 0; start < bytes.length; start += OVERFLOW_DATA) {
+            ByteBuffer view = file.get(page).data.duplicate();
+            view.position(HEADER);
+            view.get(bytes, start, Math.min(OVERFLOW_DATA, bytes.length - start));
+            page = view.getInt(4);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void freeOverflow(Stored stored) throws IOException {
+        if (!stored.isPointer) {
+            return;
+        }
+        int page = ByteBuffer.wrap(stored.bytes).getInt();
+        while (page != NONE) {
+            int next = file.get(page).data.getInt(4);
+            file.free(page);
+            page = next;
+        }
+    }
+
+    private Leaf readLeaf(int page) throws IOException {
+        ByteBuffer data = file.get(page).data;
+        Leaf leaf = new Leaf();
+        int size = data.getShort(2);
+        leaf.next = data.getInt(4);
+        int offset = HEADER;
+        for (int i = 0; i < size; i++) {
+            long key = data.getLong(offset);
+            short length = data.getShort(offset + 8);
+            offset += 10;
+            byte[] value = new byte[length < 0 ? 8 : length];
+            ByteBuffer view = data.duplicate();
+            view.position(offset);
+            view.get(value);
+            offset += value.length;
+            leaf.insert(i, key, new Stored(value, length < 0));
+        }
+        return leaf;
+    }
+
+    private void writeLeaf(int page, Leaf leaf) throws IOException {
+        PageFile.Page target = file.get(page);
+        ByteBuffer data = target.data;
+        data.put(0, LEAF).putShort(2, (short) leaf.size).putInt(4, leaf.next);
+        int offset = HEADER;
+        for (int i = 0; i < leaf.size; i++) {
+            Stored value = leaf.values[i];
+            short length = (short) (value.isPointer ? -1 : value.bytes.length);
+            data.putLong(offset, leaf.keys[i]).putShort(offset + 8, length);
+            offset += 10;
+            ByteBuffer view = data.duplicate();
+            view.position(offset);
+            view.put(value.bytes);
+            offset += value.bytes.length;
+        }
+        target.isDirty = true;
+    }
+
+    private Inner readInner(int page) throws IOException {
+        ByteBuffer data = file.get(page).data;
+        Inner inner = new Inner();
+        inner.size = data.getShort(2);
+        inner.children[0] = data.getInt(4);
+        for (int i = 0; i < inner.size; i++) {
+            inner.keys[i] = data.getLong(HEADER + i * 12);
+            inner.children[i + 1] = data.getInt(HEADER + i * 12 + 8);
+        }
+        return inner;
+    }
+
+    private void writeInner(int page, Inner inner) throws IOException {
+        PageFile.Page target = file.get(page);
+        ByteBuffer data = target.data;
+        data.put(0, INNER).putShort(2, (short) inner.size).putInt(4, inner.children[0]);
+        for (int i = 0; i < inner.size; i++) {
+            data.putLong(HEADER + i * 12, inner.keys[i]).putInt(HEADER + i * 12 + 8, inner.children[i + 1]);
+        }
+        target.isDirty = true;
+    }
+
+    /**
+     * A leaf read into memory.
+     */
+    private static class Leaf {
+        private long[] keys = new long[16];
+        private Stored[] values = new Stored[16];
+        private int size;
+        private int next = NONE;
+
+        void insert(int i, long key, Stored value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(values, i, values, i + 1, size - i);
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        void remove(int i) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+            values[size] = null;
+        }
+
+        int bytes() {
+            int bytes = HEADER;
+            for (int i = 0; i < size; i++) {
+                bytes += 10 + values[i].bytes.length;
+            }
+            return bytes;
+        }
+
+        /**
+         * Moves the upper half of the entries, by bytes, to a new leaf.
+         */
+        Leaf splitOff() {
+            int half = bytes() / 2;
+            int bytes = HEADER;
+            int mid = 0;
+            while (mid < size - 1 && bytes + 10 + values[mid].bytes.length <= half) {
+                bytes += 10 + values[mid].bytes.length;
+                mid++;
+            }
+            mid = Math.max(mid, 1);
+            Leaf right = new Leaf();
+            for (int i = mid; i < size; i++) {
+                right.insert(right.size, keys[i], values[i]);
+            }
+            while (size > mid) {
+                remove(size - 1);
+            }
+            return right;
+        }
+    }
+
+    /**
+     * An inner page read into memory, with room for one key more than fits, before it is split.
+     */
+    private static class Inner {
+        private final long[] keys = new long[MAX_KEYS + 1];
+        private final int[] children = new int[MAX_KEYS + 2];
+        private int size;
+
+        int childIndex(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insert(int child, long key, int rightChild) {
+            System.arraycopy(keys, child, keys, child + 1, size - child);
+            System.arraycopy(children, child + 1, children, child + 2, size - child);
+            keys[child] = key;
+            children[child + 1] = rightChild;
+            size++;
+        }
+
+        /**
+         * Removes the key at i and the child after it.
+         */
+        void remove(int i) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(children, i + 2, children, i + 1, size - i - 1);
+            size--;
+        }
+
+        /**
+         * Moves the keys after mid and their children to a new page; the key at mid moves up to the parent.
+         */
+        Inner splitOff(int mid) {
+            Inner right = new Inner();
+            right.size = size - mid - 1;
+            System.arraycopy(keys, mid + 1, right.keys, 0, right.size);
+            System.arraycopy(children, mid + 1, right.children, 0, right.size + 1);
+            size = mid;
+            return right;
+        }
+    }
+
+    /**
+     * What a leaf keeps for a value: its UTF-8 bytes, or a pointer to the overflow pages holding them.
+     */
+    private static class Stored {
+        private final byte[] bytes;
+        private final boolean isPointer;
+
+        Stored(byte[] bytes, boolean isPointer) {
+            this.bytes = bytes;
+            this.isPointer = isPointer;
+        }
+    }
+
+    private static class Split {
+        private final long key;
+        private final int page;
+
+        Split(long key, int page) {
+            this.key = key;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package duke.command;
+
+/**
+ * A change to a task list kept for undo. It holds only what undo needs to take the last command back: the one
+ * task it touched, or for clear the tasks as they were, so keeping it costs the same however long the list is.
+ * Applying a change with {@link TaskList#apply(Change)} returns the change that takes it back in turn.
+ */
+class Change {
+    /**
+     * What applying the change does to the task list
+     */
+    enum Kind {
+        /** Puts a task back at the place its id gives it. */
+        INSERT,
+        /** Takes a task out. */
+        REMOVE,
+        /** Marks or unmarks a task. */
+        SET_DONE,
+        /** Swaps every task for the tasks held by the change. */
+        REPLACE
+    }
+
+    final Kind kind;
+    final long id;
+    final String line;
+    final boolean isDone;
+    final TaskStore tasks;
+    final StatusIndex status;
+
+    private Change(Kind kind, long id, String line, boolean isDone, TaskStore tasks, StatusIndex status) {
+        this.kind = kind;
+        this.id = id;
+        this.line = line;
+        this.isDone = isDone;
+        this.tasks = tasks;
+        this.status = status;
+    }
+
+    static Change insert(long id, String line) {
+        return new Change(Kind.INSERT, id, line, false, null, null);
+    }
+
+    static Change remove(long id) {
+        return new Change(Kind.REMOVE, id, null, false, null, null);
+    }
+
+    static Change setDone(long id, boolean isDone) {
+        return new Change(Kind.SET_DONE, id, null, isDone, null, null);
+    }
+
+    /**
+     * Returns a change putting back the given tasks. The store must no longer be changed by anyone else.
+     */
+    static Change replace(TaskStore tasks, StatusIndex status) {
+        return new Change(Kind.REPLACE, -1, null, false, tasks, status);
+    }
+
+    /**
+     * Returns how many tasks the change holds, for profiling.
+     */
+    int size() {
+        return kind == Kind.REPLACE ? tasks.size() : 1;
+    }
+}
@@ -0,0 +1,258 @@
+package duke.command;
+
+import java.util.Arrays;
+
+import duke.task.TaskType;
+
+/**
+ * Holds the tasks of a task list as columns of primitives instead of one String per task.
+ * Each task is a type byte, a done flag, an id and two references into a {@link Utf8Arena}:
+ * one for its detail and one for the rest of its line (e.g. " (by: Feb 12 2020)").
+ * The stored line, e.g. "[D][ ] call parents  (by: Feb 12 2020)", is rendered only when asked for.
+ * Text of removed tasks is left in the arena until it outweighs the text of the tasks left; then the text of the
+ * remaining tasks is copied into a new arena and the old one is dropped.
+ */
+class CompactTaskStore implements TaskStore {
+    private static final byte RAW = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final int PREFIX_LENGTH = 7;
+    private static final int MIN_COMPACTED = 1 << 16;
+
+    private Utf8Arena arena;
+    private byte[] types;
+    private boolean[] done;
+    private int[] details;
+    private int[] suffixes;
+    private long[] ids;
+    private int size;
+    private long removedBytes;
+
+    CompactTaskStore() {
+        this.arena = new Utf8Arena();
+        this.types = new byte[16];
+        this.done = new boolean[16];
+        this.details = new int[16];
+        this.suffixes = new int[16];
+        this.ids = new long[16];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long id(int i) {
+        return ids[i];
+    }
+
+    @Override
+    public boolean isDone(int i) {
+        return done[i];
+    }
+
+    /**
+     * Returns the type of the task at the given index, or null if its line was not a well-formed task.
+     */
+    @Override
+    public TaskType type(int i) {
+        return types[i] == RAW ? null : TYPES[types[i]];
+    }
+
+    /**
+     * Appends a task given as its stored line.
+     *
+     * @param line stored line such as "[T][ ] borrow book".
+     * @param id id of the task.
+     */
+    @Override
+    public void add(String line, long id) {
+        insert(size, line, id);
+    }
+
+    @Override
+    public void insert(int i, String line, long id) {
+        if (size == types.length) {
+            grow();
+        }
+        int moved = size - i;
+        System.arraycopy(types, i, types, i + 1, moved);
+        System.arraycopy(done, i, done, i + 1, moved);
+        System.arraycopy(details, i, details, i + 1, moved);
+        System.arraycopy(suffixes, i, suffixes, i + 1, moved);
+        System.arraycopy(ids, i, ids, i + 1, moved);
+        TaskType type = line.length() >= PREFIX_LENGTH && line.charAt(0) == '[' && line.charAt(2) == ']'
+                && line.charAt(3) == '[' && line.charAt(5) == ']' && line.charAt(6) == ' '
+                ? TaskType.fromCode(line.charAt(1)) : null;
+        if (type == null) {
+            types[i] = RAW;
+            done[i] = false;
+            details[i] = arena.intern(line);
+            suffixes[i] = arena.intern("");
+        } else {
+            String body = line.substring(PREFIX_LENGTH);
+            int split = splitIndex(type, body);
+            types[i] = (byte) type.ordinal();
+            done[i] = line.charAt(4) == 'X';
+            details[i] = arena.intern(body.substring(0, split));
+            suffixes[i] = arena.intern(body.substring(split));
+        }
+        ids[i] = id;
+        size++;
+    }
+
+    private static int splitIndex(TaskType type, String body) {
+        int split = -1;
+        if (type == TaskType.DEADLINE) {
+            split = body.lastIndexOf(" (by: ");
+        } else if (type == TaskType.EVENT) {
+            split = body.lastIndexOf(" (from: ");
+        }
+        return split < 0 ? body.length() : split;
+    }
+
+    @Override
+    public void setDone(int i, boolean isDone) {
+        if (types[i] != RAW) {
+            done[i] = isDone;
+        }
+    }
+
+    /**
+     * Removes the task at the given index, shifting later tasks down.
+     * Its text stays in the arena, where other tasks may still refer to it, until the arena is compacted.
+     */
+    @Override
+    public void remove(int i) {
+        removedBytes += arena.length(details[i]) + arena.length(suffixes[i]);
+        int moved = size - i - 1;
+        System.arraycopy(types, i + 1, types, i, moved);
+        System.arraycopy(done, i + 1, done, i, moved);
+        System.arraycopy(details, i + 1, details, i, moved);
+        System.arraycopy(suffixes, i + 1, suffixes, i, moved);
+        System.arraycopy(ids, i + 1, ids, i, moved);
+        size--;
+        if (removedBytes * 2 > Math.max(arena.size(), MIN_COMPACTED)) {
+            compactArena();
+        }
+    }
+
+    /**
+     * Copies the text of the remaining tasks into a new arena, leaving the text of removed tasks behind.
+     * Removed text may have been shared with remaining tasks, so less may be left behind than was counted; the
+     * count starts again from zero either way.
+     */
+    private void compactArena() {
+        Utf8Arena compacted = new Utf8Arena();
+        for (int i = 0; i < size; i++) {
+            details[i] = compacted.intern(arena.decode(details[i]));
+            suffixes[i] = compacted.intern(arena.decode(suffixes[i]));
+        }
+        arena = compacted;
+        removedBytes = 0;
+    }
+
+    /**
+     * Returns the stored line of the task at the given index.
+     *
+     * @param i index of the task.
+     * @return line such as "[D][ ] call parents  (by: Feb 12 2020)".
+     */
+    @Override
+    public String get(int i) {
+        if (types[i] == RAW) {
+            return arena.decode(details[i]);
+        }
+        String detail = arena.decode(details[i]);
+        String suffix = arena.decode(suffixes[i]);
+        StringBuilder line = new StringBuilder(PREFIX_LENGTH + detail.length() + suffix.length());
+        line.append('[').append(TYPES[types[i]].getCode()).append("][").append(done[i] ? 'X' : ' ').append("] ");
+        return line.append(detail).append(suffix).toString();
+    }
+
+    /**
+     * Returns whether the stored line of the task at the given index contains the keyword.
+     * The search runs over the UTF-8 bytes in the arena, so no line is rendered.
+     *
+     * @param i index of the task.
+     * @param keyword UTF-8 bytes of the keyword.
+     * @return true if the line contains the keyword.
+     */
+    @Override
+    public boolean contains(int i, byte[] keyword) {
+        int detailStart = arena.start(details[i]);
+        int detailLength = arena.length(details[i]);
+        int suffixStart = arena.start(suffixes[i]);
+        int prefix = types[i] == RAW ? 0 : PREFIX_LENGTH;
+        int total = prefix + detailLength + arena.length(suffixes[i]);
+        for (int from = 0; from + keyword.length <= total; from++) {
+            int k = 0;
+            while (k < keyword.length && byteAt(i, from + k, prefix, detailStart, detailLength, suffixStart)
+                    == keyword[k]) {
+                k++;
+            }
+            if (k == keyword.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte byteAt(int i, int pos, int prefix, int detailStart, int detailLength, int suffixStart) {
+        if (pos < prefix) {
+            switch (pos) {
+            case 1:
+                return (byte) TYPES[types[i]].getCode();
+            case 4:
+                return (byte) (done[i] ? 'X' : ' ');
+            case 0:
+            case 3:
+                return '[';
+            case 6:
+                return ' ';
+            default:
+                return ']';
+            }
+        }
+        pos -= prefix;
+        if (pos < detailLength) {
+            return arena.byteAt(detailStart + pos);
+        }
+        return arena.byteAt(suffixStart + pos - detailLength);
+    }
+
+    /**
+     * Returns an empty store with an arena of its own, so a task list rebuilt on it, e.g. by archive or clear,
+     * keeps only the text of the tasks it still has.
+     */
+    @Override
+    public CompactTaskStore emptyCopy() {
+        return new CompactTaskStore();
+    }
+
+    /**
+     * Returns how many bytes of text the arena holds, the text of removed tasks not yet compacted included.
+     */
+    long arenaBytes() {
+        return arena.size();
+    }
+
+    /**
+     * Returns the position of the task with the given id. Ids increase along the store.
+     *
+     * @return index of the task, or a negative number if there is no such task.
+     */
+    @Override
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        done = Arrays.copyOf(done, capacity);
+        details = Arrays.copyOf(details, capacity);
+        suffixes = Arrays.copyOf(suffixes, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+}
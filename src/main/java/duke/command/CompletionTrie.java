@@ -0,0 +1,197 @@
+package duke.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Suggests words for a prefix, most frequent first, e.g. "bo" gives "book", "boss".
+ * Words are kept in a compressed trie, where a chain of single-child nodes is merged into one edge,
+ * and every node keeps the best {@code k} words below it. Adding or removing a word only recomputes those
+ * lists along the word's own path, so a lookup costs the length of the prefix plus {@code k}, however many
+ * words there are.
+ */
+public class CompletionTrie {
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingInt((Suggestion s) -> -s.count)
+            .thenComparing(s -> s.word);
+
+    private final int k;
+    private final Node root = new Node("");
+
+    /**
+     * Initializes an empty trie
+     * @param k number of suggestions kept for every prefix
+     */
+    public CompletionTrie(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Adds one occurrence of the word.
+     *
+     * @param word word to add, not empty.
+     */
+    public synchronized void add(String word) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < word.length()) {
+            Node child = node.children.get(word.charAt(i));
+            if (child == null) {
+                child = new Node(word.substring(i));
+                node.children.put(word.charAt(i), child);
+                node = child;
+                i = word.length();
+            } else {
+                int common = commonLength(child.label, word, i);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+                node = child;
+                i += common;
+            }
+            path.add(node);
+        }
+        node.word = word;
+        node.count++;
+        refresh(path);
+    }
+
+    /**
+     * Removes one occurrence of the word, if there is one.
+     *
+     * @param word word to remove.
+     */
+    public synchronized void remove(String word) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < word.length()) {
+            node = node.children.get(word.charAt(i));
+            if (node == null || !word.startsWith(node.label, i)) {
+                return;
+            }
+            i += node.label.length();
+            path.add(node);
+        }
+        if (node.count == 0) {
+            return;
+        }
+        node.count--;
+        for (int j = path.size() - 1; j > 0; j--) {
+            Node child = path.get(j);
+            Node parent = path.get(j - 1);
+            if (child.count == 0 && child.children.isEmpty()) {
+                parent.children.remove(child.label.charAt(0));
+                path.remove(j);
+            } else if (child.count == 0 && child.children.size() == 1) {
+                Node only = child.children.firstEntry().getValue();
+                only.label = child.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+                path.set(j, only);
+            }
+        }
+        refresh(path);
+    }
+
+    /**
+     * Removes every word.
+     */
+    public synchronized void clear() {
+        root.children.clear();
+        root.top = new ArrayList<>();
+    }
+
+    /**
+     * Returns the most frequent words starting with the prefix.
+     *
+     * @param prefix start of the word typed so far.
+     * @return up to k words, most frequent first.
+     */
+    public synchronized List<String> complete(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = node.children.get(prefix.charAt(i));
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            int common = commonLength(node.label, prefix, i);
+            if (common < node.label.length() && i + common < prefix.length()) {
+                return Collections.emptyList();
+            }
+            i += common;
+        }
+        List<String> res = new ArrayList<>(node.top.size());
+        for (Suggestion suggestion : node.top) {
+            res.add(suggestion.word);
+        }
+        return res;
+    }
+
+    private static int commonLength(String label, String word, int from) {
+        int n = Math.min(label.length(), word.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == word.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Splits the child's edge after the given number of characters, returning the new middle node.
+     */
+    private static Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.children.put(child.label.charAt(0), child);
+        middle.top = new ArrayList<>(child.top);
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    /**
+     * Recomputes the best words of each node on the path, deepest first.
+     * The best k words below a node are always among its own word and the best k of each child.
+     */
+    private void refresh(List<Node> path) {
+        for (int j = path.size() - 1; j >= 0; j--) {
+            Node node = path.get(j);
+            List<Suggestion> candidates = new ArrayList<>();
+            if (node.count > 0) {
+                candidates.add(new Suggestion(node.word, node.count));
+            }
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            candidates.sort(BEST_FIRST);
+            node.top = new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+        }
+    }
+
+    private static class Node {
+        private String label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private String word;
+        private int count;
+        private List<Suggestion> top = new ArrayList<>();
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static class Suggestion {
+        private final String word;
+        private final int count;
+
+        Suggestion(String word, int count) {
+            this.word = word;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package duke.command;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder events for what Duke does, so a recording can line up garbage collection and file I/O with the
+ * commands that caused them. The events are off unless the recording turns them on, e.g. with
+ * {@code src/main/resources/duke.jfc}; while they are off, {@code shouldCommit()} is false and nothing is recorded.
+ */
+public final class DukeEvents {
+    private DukeEvents() {
+    }
+
+    /**
+     * Returns the outcome to record for a command or parse that threw, e.g. "InvalidIndexException".
+     *
+     * @param e exception thrown, or null if it succeeded.
+     * @return "ok" or the simple name of the exception.
+     */
+    static String outcome(Throwable e) {
+        return e == null ? "ok" : e.getClass().getSimpleName();
+    }
+
+    /**
+     * A command run by Duke, from taking the lock on the data file to saving it.
+     */
+    @Name("duke.Command")
+    @Label("Command")
+    @Category("Duke")
+    @Description("A command typed into the CLI or the GUI")
+    @StackTrace(false)
+    public static final class Command extends Event {
+        @Label("Verb")
+        public String verb;
+
+        @Label("Outcome")
+        @Description("\"ok\", or the exception that made Duke reject the command")
+        public String outcome;
+
+        @Label("Tasks")
+        @Description("Number of tasks in the list after the command")
+        public int tasks;
+    }
+
+    /**
+     * Turning the date flags of a deadline or event into dates.
+     */
+    @Name("duke.DateParse")
+    @Label("Date Parse")
+    @Category("Duke")
+    @StackTrace(false)
+    public static final class DateParse extends Event {
+        @Label("Type")
+        public String type;
+
+        @Label("Input Length")
+        public int length;
+
+        @Label("Outcome")
+        public String outcome;
+    }
+
+    /**
+     * Reading the saved tasks, at start-up or to pick up what another Duke saved.
+     */
+    @Name("duke.StorageLoad")
+    @Label("Storage Load")
+    @Category({"Duke", "Storage"})
+    @StackTrace(false)
+    public static final class StorageLoad extends Event {
+        @Label("Backend")
+        public String backend;
+
+        @Label("Path")
+        public String path;
+
+        @Label("Tasks")
+        public int tasks;
+
+        @Label("Bytes Read")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * Writing a changed task list out.
+     */
+    @Name("duke.StorageFlush")
+    @Label("Storage Flush")
+    @Category({"Duke", "Storage"})
+    @StackTrace(false)
+    public static final class StorageFlush extends Event {
+        @Label("Backend")
+        public String backend;
+
+        @Label("Path")
+        public String path;
+
+        @Label("Tasks")
+        public int tasks;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * Keeping the change that undo takes back. The name stays from when undo copied the whole task list.
+     */
+    @Name("duke.UndoSnapshot")
+    @Label("Undo Record")
+    @Category("Duke")
+    @StackTrace(false)
+    public static final class UndoSnapshot extends Event {
+        @Label("Change")
+        public String change;
+
+        @Label("Tasks")
+        public int tasks;
+    }
+}
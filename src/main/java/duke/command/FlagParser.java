@@ -0,0 +1,300 @@
+package duke.command;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import duke.exception.DukeException;
+import duke.exception.InvalidDeadlineDateException;
+import duke.exception.InvalidEventDateTimeException;
+import duke.exception.InvalidPriorityException;
+import duke.exception.InvalidRecurrenceException;
+import duke.exception.MissingContentException;
+import duke.task.Priority;
+import duke.task.Recurrence;
+import duke.task.Task;
+import duke.task.TaskType;
+
+/**
+ * Parses todo, deadline and event commands in one pass over the raw input.
+ * Flags such as /by, /from, /to and /priority are found while walking the words once, and only the start and end of
+ * each part are kept; dates and times are read straight from the characters, so the only strings made are
+ * the task detail and nothing is split or joined along the way.
+ */
+public class FlagParser {
+    private static final int DETAIL = 0;
+    private static final int BY = 1;
+    private static final int FROM = 2;
+    private static final int TO = 3;
+    private static final int EVERY = 4;
+    private static final int UNTIL = 5;
+    private static final int TIMES = 6;
+    private static final int PRIORITY = 7;
+    private static final int EFFORT = 8;
+    private static final String[] FLAGS = {null, "/by", "/from", "/to", "/every", "/until", "/times", "/priority",
+        "/effort"};
+
+    private FlagParser() {}
+
+    /**
+     * Returns the command given by the user.
+     *
+     * @param input raw input, e.g. "deadline return book /by 2026-11-01 /every week /times 4".
+     * @return parsed command.
+     * @throws MissingContentException if the detail or a required flag is missing.
+     * @throws InvalidDeadlineDateException if the deadline day is not YYYY-MM-DD.
+     * @throws InvalidEventDateTimeException if an event time is not YYYY-MM-DD HHmm.
+     * @throws InvalidRecurrenceException if the task repeats with a malformed rule.
+     * @throws InvalidPriorityException if the priority or the effort is malformed.
+     */
+    public static TaskCommand parse(CharSequence input) throws DukeException {
+        int len = input.length();
+        int verbEnd = indexOf(input, ' ', 0, len);
+        TaskType type;
+        if (matches(input, 0, verbEnd, "deadline")) {
+            type = TaskType.DEADLINE;
+        } else if (matches(input, 0, verbEnd, "event")) {
+            type = TaskType.EVENT;
+        } else if (matches(input, 0, verbEnd, "todo")) {
+            type = TaskType.TODO;
+        } else {
+            throw new IllegalArgumentException();
+        }
+
+        int[] starts = new int[FLAGS.length];
+        int[] ends = new int[FLAGS.length];
+        Arrays.fill(starts, -1);
+        int section = DETAIL;
+        starts[DETAIL] = Math.min(verbEnd + 1, len);
+        for (int wordStart = verbEnd + 1; wordStart < len; ) {
+            int wordEnd = indexOf(input, ' ', wordStart, len);
+            int flag = flagAt(input, wordStart, wordEnd, type, starts);
+            if (flag > 0) {
+                ends[section] = Math.max(wordStart - 1, starts[section]);
+                section = flag;
+                starts[section] = Math.min(wordEnd + 1, len);
+            }
+            wordStart = wordEnd + 1;
+        }
+        ends[section] = len;
+
+        if (ends[DETAIL] <= starts[DETAIL]) {
+            throw new MissingContentException();
+        }
+        String detail = new StringBuilder(ends[DETAIL] - starts[DETAIL] + 1)
+                .append(input, starts[DETAIL], ends[DETAIL]).append(' ').toString();
+        Priority priority = null;
+        Duration effort = null;
+        if (starts[PRIORITY] >= 0) {
+            priority = Priority.parse(input.subSequence(starts[PRIORITY], ends[PRIORITY]).toString());
+            if (priority == null) {
+                throw new InvalidPriorityException();
+            }
+        }
+        if (starts[EFFORT] >= 0) {
+            effort = Task.parseEffort(input.subSequence(starts[EFFORT], ends[EFFORT]).toString());
+            if (effort == null) {
+                throw new InvalidPriorityException();
+            }
+        }
+        if (type == TaskType.TODO) {
+            return new TaskCommand(type, detail, null, null, null, null).plan(priority, effort);
+        }
+        DukeEvents.DateParse event = new DukeEvents.DateParse();
+        event.begin();
+        DukeException error = null;
+        try {
+            return parseDates(input, type, detail, starts, ends).plan(priority, effort);
+        } catch (DukeException e) {
+            error = e;
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.type = type.name().toLowerCase();
+                event.length = len;
+                event.outcome = DukeEvents.outcome(error);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the command with the dates and recurrence of a deadline or event parsed from their flags.
+     */
+    private static TaskCommand parseDates(CharSequence input, TaskType type, String detail, int[] starts, int[] ends)
+            throws DukeException {
+        Recurrence recurrence = parseRecurrence(input, starts, ends);
+        switch (type) {
+        case DEADLINE:
+            if (starts[BY] < 0) {
+                throw new MissingContentException();
+            }
+            LocalDate by = parseDate(input, starts[BY], ends[BY]);
+            if (by == null) {
+                throw new InvalidDeadlineDateException();
+            }
+            return new TaskCommand(type, detail, by, null, null, recurrence);
+        case EVENT:
+            if (starts[FROM] < 0 || starts[TO] < 0) {
+                throw new MissingContentException();
+            }
+            LocalDateTime from = parseDateTime(input, starts[FROM], ends[FROM]);
+            LocalDateTime to = parseDateTime(input, starts[TO], ends[TO]);
+            if (from == null || to == null) {
+                throw new InvalidEventDateTimeException();
+            }
+            return new TaskCommand(type, detail, null, from, to, recurrence);
+        default:
+            return new TaskCommand(type, detail, null, null, null, null);
+        }
+    }
+
+    /**
+     * Returns which flag the word is, if it is one this kind of task takes and it has not been seen yet.
+     * /to only counts after /from, and /until and /times only after /every.
+     */
+    private static int flagAt(CharSequence s, int start, int end, TaskType type, int[] starts) {
+        if (end - start < 3 || s.charAt(start) != '/') {
+            return -1;
+        }
+        for (int flag = BY; flag < FLAGS.length; flag++) {
+            if (starts[flag] < 0 && matches(s, start, end, FLAGS[flag]) && takes(type, flag, starts)) {
+                return flag;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean takes(TaskType type, int flag, int[] starts) {
+        switch (flag) {
+        case BY:
+            return type == TaskType.DEADLINE;
+        case FROM:
+            return type == TaskType.EVENT;
+        case TO:
+            return type == TaskType.EVENT && starts[FROM] >= 0;
+        case EVERY:
+            return type != TaskType.TODO;
+        case PRIORITY:
+        case EFFORT:
+            return true;
+        default:
+            return starts[EVERY] >= 0;
+        }
+    }
+
+    private static Recurrence parseRecurrence(CharSequence s, int[] starts, int[] ends)
+            throws InvalidRecurrenceException {
+        if (starts[EVERY] < 0) {
+            return null;
+        }
+        Recurrence.Frequency frequency = null;
+        for (Recurrence.Frequency f : Recurrence.Frequency.values()) {
+            if (f.matches(s, starts[EVERY], ends[EVERY])) {
+                frequency = f;
+            }
+        }
+        if (frequency == null || (starts[UNTIL] >= 0 && starts[TIMES] >= 0)) {
+            throw new InvalidRecurrenceException();
+        }
+        if (starts[UNTIL] >= 0) {
+            LocalDate until = parseDate(s, starts[UNTIL], ends[UNTIL]);
+            if (until == null) {
+                throw new InvalidRecurrenceException();
+            }
+            return new Recurrence(frequency, until, 0);
+        } else if (starts[TIMES] >= 0) {
+            int times = parseNumber(s, starts[TIMES], ends[TIMES]);
+            if (times < 1) {
+                throw new InvalidRecurrenceException();
+            }
+            return new Recurrence(frequency, null, times);
+        }
+        return new Recurrence(frequency, null, 0);
+    }
+
+    /**
+     * Returns the day written as YYYY-MM-DD between start and end, or null if it is not a valid day.
+     */
+    static LocalDate parseDate(CharSequence s, int start, int end) {
+        if (end - start != 10 || s.charAt(start + 4) != '-' || s.charAt(start + 7) != '-') {
+            return null;
+        }
+        int year = parseNumber(s, start, start + 4);
+        int month = parseNumber(s, start + 5, start + 7);
+        int day = parseNumber(s, start + 8, start + 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the time written as YYYY-MM-DD HHmm (or YYYY-MM-DD HH) between start and end,
+     * or null if it is not a valid time.
+     */
+    static LocalDateTime parseDateTime(CharSequence s, int start, int end) {
+        if (end - start != 13 && end - start != 15 || s.charAt(start + 10) != ' ') {
+            return null;
+        }
+        LocalDate day = parseDate(s, start, start + 10);
+        int hour = parseNumber(s, start + 11, start + 13);
+        int minute = end - start == 15 ? parseNumber(s, start + 13, start + 15) : 0;
+        if (day == null || hour < 0 || minute < 0) {
+            return null;
+        }
+        try {
+            return day.atTime(hour, minute);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the non-negative number written between start and end, or -1 if it is not one.
+     */
+    private static int parseNumber(CharSequence s, int start, int end) {
+        if (end <= start || end - start > 9) {
+            return -1;
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns whether the characters between start and end are the given word, ignoring case.
+     */
+    static boolean matches(CharSequence s, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(s.charAt(start + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
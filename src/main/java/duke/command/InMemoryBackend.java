@@ -0,0 +1,43 @@
+package duke.command;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the tasks in memory only, for tests and benchmarks that should not touch the disk.
+ * Saved lists are kept by data file for as long as Duke runs, so a task list dropped from memory by
+ * {@link Workspaces} and loaded again still finds its tasks.
+ */
+class InMemoryBackend implements StorageBackend {
+    private static final Map<Path, String[]> saved = new ConcurrentHashMap<>();
+
+    private final Path key;
+
+    InMemoryBackend(Path file) {
+        this.key = file.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Path file() {
+        return null;
+    }
+
+    @Override
+    public TaskList load() {
+        return new TaskList(saved.getOrDefault(key, new String[0]));
+    }
+
+    @Override
+    public List<String> lines() {
+        return new ArrayList<>(Arrays.asList(saved.getOrDefault(key, new String[0])));
+    }
+
+    @Override
+    public void save(TaskList tasks) {
+        saved.put(key, tasks.readTaskList());
+    }
+}
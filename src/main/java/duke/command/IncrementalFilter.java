@@ -0,0 +1,66 @@
+package duke.command;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds the tasks containing a query as it is typed.
+ * When the new query contains the previous one and the task list has not changed, every match must be among
+ * the previous matches, so only those are searched again. Otherwise the whole list is searched.
+ * A search can be given up part-way when the query changes; the previous matches are then kept for the next.
+ */
+public class IncrementalFilter {
+    private static final int CHECK_EVERY = 1024;
+
+    private TaskList lastList;
+    private long lastVersion;
+    private String lastQuery;
+    private int[] lastMatches = new int[0];
+    private int lastCount;
+
+    /**
+     * Returns the tasks containing the query, as numbered in the task list, e.g. "3. [T][ ] read book".
+     *
+     * @param list task list to search.
+     * @param query text typed so far.
+     * @param isCancelled checked while searching, the search stops once it is true.
+     * @return matching tasks, or null if the search was cancelled.
+     */
+    public synchronized List<String> filter(TaskList list, String query, BooleanSupplier isCancelled) {
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+        byte[] keyword = query.getBytes(StandardCharsets.UTF_8);
+        boolean canNarrow = list == lastList && list.version() == lastVersion && lastQuery != null
+                && query.contains(lastQuery);
+        int total = canNarrow ? lastCount : list.getValidLen();
+        int[] matches = new int[Math.min(total, 16)];
+        int count = 0;
+        for (int j = 0; j < total; j++) {
+            if (j % CHECK_EVERY == 0 && isCancelled.getAsBoolean()) {
+                return null;
+            }
+            int i = canNarrow ? lastMatches[j] : j;
+            if (list.contains(i, keyword)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.max(16, count * 2));
+                }
+                matches[count++] = i;
+            }
+        }
+        lastList = list;
+        lastVersion = list.version();
+        lastQuery = query;
+        lastMatches = matches;
+        lastCount = count;
+
+        List<String> res = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            res.add((matches[j] + 1) + ". " + list.get(matches[j]));
+        }
+        return res;
+    }
+}
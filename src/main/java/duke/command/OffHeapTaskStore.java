@@ -0,0 +1,469 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.TaskType;
+
+/**
+ * Holds tasks outside the Java heap, in direct ByteBuffer slabs, so millions of tasks cost the garbage
+ * collector a handful of objects instead of millions. Selected with {@code -Dduke.store=offheap}.
+ *
+ * <p>Each task is a fixed-width record in the record slab:
+ * <pre>
+ *  0 type (byte, -1 for a line that is not a well-formed task)   1 flags (done, live, repeats)
+ *  4 text length (int)   8 next free slot (int)   16 text offset (long)   24 id (long)
+ * 32 start (epoch second, UTC)   40 end (epoch second, UTC)
+ * </pre>
+ * Start is the day of a deadline or the start of an event, and end is the day of a deadline or the end of an
+ * event; both are Long.MIN_VALUE for other tasks. They answer date filters, sorting by date and the upcoming
+ * window without decoding a line.
+ * The text of the line after its "[T][ ] " prefix lives in a text slab of the store's own.
+ * Slots of deleted tasks are chained into a free-list and reused by later tasks. Text of deleted tasks is
+ * squeezed out of the text slab, in place, once it takes more room than the text of the tasks still there.
+ * {@link #save(Path)} writes a header followed by both slabs as they are in memory, and {@link #map(Path)}
+ * maps such a file straight back in without decoding it.
+ */
+class OffHeapTaskStore implements TaskStore {
+    static final int RECORD_SIZE = 48;
+    private static final int TYPE = 0;
+    private static final int FLAGS = 1;
+    private static final int TEXT_LENGTH = 4;
+    private static final int NEXT_FREE = 8;
+    private static final int TEXT_OFFSET = 16;
+    private static final int ID = 24;
+    private static final int START = 32;
+    private static final int END = 40;
+
+    private static final byte DONE = 1;
+    private static final byte LIVE = 2;
+    private static final byte REPEATS = 4;
+    private static final byte RAW = -1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int PREFIX_LENGTH = 7;
+    private static final int MIN_COMPACTED = 1 << 16;
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private static final int MAGIC = 0x44554b45;
+    private static final int HEADER_SIZE = 20;
+
+    private final TextSlab text;
+    private ByteBuffer records;
+    private int slots = 0;
+    private int freeHead = -1;
+    private int[] order = new int[16];
+    private int size = 0;
+
+    OffHeapTaskStore() {
+        this(new TextSlab(ByteBuffer.allocateDirect(1 << 16)), ByteBuffer.allocateDirect(RECORD_SIZE * 16));
+    }
+
+    private OffHeapTaskStore(TextSlab text, ByteBuffer records) {
+        this.text = text;
+        this.records = records;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long id(int i) {
+        return records.getLong(order[i] * RECORD_SIZE + ID);
+    }
+
+    @Override
+    public boolean isDone(int i) {
+        return (records.get(order[i] * RECORD_SIZE + FLAGS) & DONE) != 0;
+    }
+
+    @Override
+    public TaskType type(int i) {
+        byte type = records.get(order[i] * RECORD_SIZE + TYPE);
+        return type == RAW ? null : TYPES[type];
+    }
+
+    @Override
+    public boolean keepsDates() {
+        return true;
+    }
+
+    @Override
+    public LocalDateTime start(int i) {
+        return toTime(records.getLong(order[i] * RECORD_SIZE + START));
+    }
+
+    @Override
+    public LocalDateTime end(int i) {
+        return toTime(records.getLong(order[i] * RECORD_SIZE + END));
+    }
+
+    @Override
+    public boolean repeats(int i) {
+        return (records.get(order[i] * RECORD_SIZE + FLAGS) & REPEATS) != 0;
+    }
+
+    private static LocalDateTime toTime(long epochSecond) {
+        return epochSecond == NO_DATE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public void add(String line, long id) {
+        insert(size, line, id);
+    }
+
+    @Override
+    public void insert(int i, String line, long id) {
+        TaskType type = line.length() >= PREFIX_LENGTH && line.charAt(0) == '[' && line.charAt(2) == ']'
+                && line.charAt(3) == '[' && line.charAt(5) == ']' && line.charAt(6) == ' '
+                ? TaskType.fromCode(line.charAt(1)) : null;
+        String body = type == null ? line : line.substring(PREFIX_LENGTH);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        long start = NO_DATE;
+        long end = NO_DATE;
+        boolean repeats = false;
+        if (type == TaskType.DEADLINE || type == TaskType.EVENT) {
+            Task task = Task.fromString(line);
+            if (task instanceof Deadline) {
+                start = ((Deadline) task).getDay().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+                end = start;
+                repeats = ((Deadline) task).getRecurrence() != null;
+            } else if (task instanceof Event) {
+                start = ((Event) task).getStart().toEpochSecond(ZoneOffset.UTC);
+                end = ((Event) task).getEnd().toEpochSecond(ZoneOffset.UTC);
+                repeats = ((Event) task).getRecurrence() != null;
+            }
+        }
+
+        int slot = allocateSlot();
+        int at = slot * RECORD_SIZE;
+        records.put(at + TYPE, type == null ? RAW : (byte) type.ordinal());
+        records.put(at + FLAGS, (byte) (LIVE | (type != null && line.charAt(4) == 'X' ? DONE : 0)
+                | (repeats ? REPEATS : 0)));
+        records.putInt(at + TEXT_LENGTH, bytes.length);
+        records.putInt(at + NEXT_FREE, -1);
+        records.putLong(at + TEXT_OFFSET, text.append(bytes));
+        records.putLong(at + ID, id);
+        records.putLong(at + START, start);
+        records.putLong(at + END, end);
+
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        System.arraycopy(order, i, order, i + 1, size - i);
+        order[i] = slot;
+        size++;
+    }
+
+    private int allocateSlot() {
+        if (freeHead >= 0) {
+            int slot = freeHead;
+            freeHead = records.getInt(slot * RECORD_SIZE + NEXT_FREE);
+            return slot;
+        }
+        if ((slots + 1) * RECORD_SIZE > records.capacity()) {
+            records = grow(records, slots * RECORD_SIZE, (slots + 1) * RECORD_SIZE);
+        }
+        return slots++;
+    }
+
+    @Override
+    public void setDone(int i, boolean isDone) {
+        int at = order[i] * RECORD_SIZE;
+        if (records.get(at + TYPE) == RAW) {
+            return;
+        }
+        byte flags = records.get(at + FLAGS);
+        records.put(at + FLAGS, (byte) (isDone ? flags | DONE : flags & ~DONE));
+    }
+
+    @Override
+    public void remove(int i) {
+        int slot = order[i];
+        int at = slot * RECORD_SIZE;
+        text.dead += records.getInt(at + TEXT_LENGTH);
+        records.put(at + FLAGS, (byte) 0);
+        records.putInt(at + NEXT_FREE, freeHead);
+        freeHead = slot;
+        System.arraycopy(order, i + 1, order, i, size - i - 1);
+        size--;
+        if (text.dead > MIN_COMPACTED && text.dead > text.size - text.dead) {
+            compactText();
+        }
+    }
+
+    /**
+     * Moves the text of the remaining tasks down over the text of deleted ones, in the order it lies in the slab,
+     * so no new slab is allocated.
+     */
+    private void compactText() {
+        long[] byOffset = new long[size];
+        for (int k = 0; k < size; k++) {
+            byOffset[k] = records.getLong(order[k] * RECORD_SIZE + TEXT_OFFSET) << 32 | order[k];
+        }
+        Arrays.sort(byOffset);
+        int to = 0;
+        for (long entry : byOffset) {
+            int at = (int) entry * RECORD_SIZE;
+            int from = (int) (entry >>> 32);
+            int length = records.getInt(at + TEXT_LENGTH);
+            text.move(from, to, length);
+            records.putLong(at + TEXT_OFFSET, to);
+            to += length;
+        }
+        text.size = to;
+        text.dead = 0;
+    }
+
+    @Override
+    public String get(int i) {
+        int at = order[i] * RECORD_SIZE;
+        byte type = records.get(at + TYPE);
+        byte[] bytes = text.read(records.getLong(at + TEXT_OFFSET), records.getInt(at + TEXT_LENGTH));
+        String body = new String(bytes, StandardCharsets.UTF_8);
+        if (type == RAW) {
+            return body;
+        }
+        boolean isDone = (records.get(at + FLAGS) & DONE) != 0;
+        return "[" + TYPES[type].getCode() + "][" + (isDone ? 'X' : ' ') + "] " + body;
+    }
+
+    @Override
+    public boolean contains(int i, byte[] keyword) {
+        int at = order[i] * RECORD_SIZE;
+        byte type = records.get(at + TYPE);
+        long offset = records.getLong(at + TEXT_OFFSET);
+        int prefix = type == RAW ? 0 : PREFIX_LENGTH;
+        int total = prefix + records.getInt(at + TEXT_LENGTH);
+        byte[] head = type == RAW ? new byte[0] : new byte[] {'[', (byte) TYPES[type].getCode(), ']', '[',
+            (byte) ((records.get(at + FLAGS) & DONE) != 0 ? 'X' : ' '), ']', ' '};
+        for (int from = 0; from + keyword.length <= total; from++) {
+            int k = 0;
+            while (k < keyword.length) {
+                int pos = from + k;
+                byte b = pos < prefix ? head[pos] : text.buffer.get((int) (offset + pos - prefix));
+                if (b != keyword[k]) {
+                    break;
+                }
+                k++;
+            }
+            if (k == keyword.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an empty store with slabs of its own, so the text of this store can be squeezed without touching it.
+     */
+    @Override
+    public OffHeapTaskStore emptyCopy() {
+        return new OffHeapTaskStore();
+    }
+
+    @Override
+    public int indexOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = id(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Returns a store holding the same tasks with the same ids, the given store itself if it is already off-heap.
+     *
+     * @param tasks tasks to hold.
+     * @return off-heap store of the tasks.
+     */
+    static OffHeapTaskStore of(TaskStore tasks) {
+        if (tasks instanceof OffHeapTaskStore) {
+            return (OffHeapTaskStore) tasks;
+        }
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        for (int i = 0; i < tasks.size(); i++) {
+            store.add(tasks.get(i), tasks.id(i));
+        }
+        return store;
+    }
+
+    /**
+     * Writes the store to a file in the same layout it has in memory:
+     * a header (magic, record size, number of slots, head of the free-list, text length), the record slab and
+     * the text slab.
+     *
+     * @param file file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(RECORD_SIZE).putInt(slots).putInt(freeHead).putInt(text.size).flip();
+            writeFully(channel, header);
+            writeFully(channel, slice(records, 0, slots * RECORD_SIZE));
+            writeFully(channel, slice(text.buffer, 0, text.size));
+        }
+    }
+
+    /**
+     * Returns a store backed directly by a file written by {@link #save(Path)}.
+     * The file is mapped privately: changes made to the store are never written back to it, and stay in memory
+     * until the store is saved again.
+     *
+     * @param file file to map.
+     * @return store over the mapped file.
+     * @throws IOException if the file cannot be read or was not written by {@link #save(Path)}.
+     */
+    static OffHeapTaskStore map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer whole = channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size());
+            if (whole.capacity() < HEADER_SIZE || whole.getInt(0) != MAGIC || whole.getInt(4) != RECORD_SIZE) {
+                throw new IOException("Not a task slab file: " + file);
+            }
+            int slots = whole.getInt(8);
+            int freeHead = whole.getInt(12);
+            int textSize = whole.getInt(16);
+            if ((long) HEADER_SIZE + (long) slots * RECORD_SIZE + textSize > whole.capacity()) {
+                throw new IOException("Task slab file is cut short: " + file);
+            }
+            ByteBuffer records = slice(whole, HEADER_SIZE, slots * RECORD_SIZE);
+            TextSlab text = new TextSlab(slice(whole, HEADER_SIZE + slots * RECORD_SIZE, textSize));
+            text.size = textSize;
+            OffHeapTaskStore store = new OffHeapTaskStore(text, records);
+            store.slots = slots;
+            store.freeHead = freeHead;
+            store.rebuildOrder();
+            return store;
+        }
+    }
+
+    /**
+     * Puts the live slots back in list order, which is the order of their ids, and counts the text they no longer
+     * use as deleted.
+     */
+    private void rebuildOrder() {
+        long[] byId = new long[slots];
+        int live = 0;
+        int liveText = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int at = slot * RECORD_SIZE;
+            if ((records.get(at + FLAGS) & LIVE) != 0) {
+                byId[live++] = records.getLong(at + ID);
+                liveText += records.getInt(at + TEXT_LENGTH);
+            }
+        }
+        long[] ids = Arrays.copyOf(byId, live);
+        Arrays.sort(ids);
+        order = new int[Math.max(live, 16)];
+        for (int slot = 0; slot < slots; slot++) {
+            int at = slot * RECORD_SIZE;
+            if ((records.get(at + FLAGS) & LIVE) != 0) {
+                order[Arrays.binarySearch(ids, records.getLong(at + ID))] = slot;
+            }
+        }
+        size = live;
+        text.dead = text.size - liveText;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns how many bytes the text slab holds, the text of deleted tasks not yet squeezed out included.
+     */
+    int textBytes() {
+        return text.size;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(from + length);
+        view.position(from);
+        return view.slice();
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int used, int needed) {
+        ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(needed, buffer.capacity() * 2));
+        bigger.put(slice(buffer, 0, used));
+        bigger.clear();
+        return bigger;
+    }
+
+    /**
+     * Region holding the text of tasks, appended to as tasks are added.
+     */
+    private static class TextSlab {
+        private final byte[] chunk = new byte[4096];
+        private ByteBuffer buffer;
+        private int size;
+        private int dead;
+
+        TextSlab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long append(byte[] bytes) {
+            if (size + bytes.length > buffer.capacity()) {
+                buffer = grow(buffer, size, size + bytes.length);
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.position(size);
+            view.put(bytes);
+            long offset = size;
+            size += bytes.length;
+            return offset;
+        }
+
+        byte[] read(long offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) offset);
+            view.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Copies length bytes from one place down to an earlier one, a chunk at a time, which is safe even where
+         * the two overlap.
+         */
+        void move(int from, int to, int length) {
+            if (from == to) {
+                return;
+            }
+            ByteBuffer source = buffer.duplicate();
+            ByteBuffer target = buffer.duplicate();
+            for (int done = 0; done < length; done += chunk.length) {
+                int n = Math.min(chunk.length, length - done);
+                source.position(from + done);
+                source.get(chunk, 0, n);
+                target.position(to + done);
+                target.put(chunk, 0, n);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package duke.command;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A file of fixed-size pages with a cache of the most recently used ones in memory.
+ * Changed pages stay in the cache until {@link #flush()}, even past its capacity, so a half-done change never
+ * reaches the file; only unchanged pages are pushed out. Flushing writes the changed pages first and the header
+ * last, so pages newly allocated by the change are only reachable once everything else is written. There is no
+ * journal, though: pages changed in place are written one by one, so a crash in the middle of a flush can leave
+ * some of them old and some new.
+ * Page 0 is the header; it holds the root page of the tree stored in the file, the number of pages and the
+ * head of a list of freed pages, which are handed out again before the file grows, and how many there are.
+ */
+class PageFile implements Closeable {
+    static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x44554b50;
+    private static final int VERSION = 1;
+    private static final int ROOT = 8;
+    private static final int PAGE_COUNT = 12;
+    private static final int FREE_HEAD = 16;
+    private static final int FREE_COUNT = 20;
+    private static final int NEXT_FREE = 4;
+    private static final int NONE = -1;
+
+    private final FileChannel channel;
+    private final int capacity;
+    private final LinkedHashMap<Integer, Page> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+    private boolean isHeaderDirty;
+    private long pagesRead;
+    private long pagesWritten;
+
+    /**
+     * Opens the page file, creating it if it does not exist.
+     *
+     * @param path file to open.
+     * @param capacity number of pages kept in memory.
+     * @throws IOException if the file cannot be opened or is not a page file.
+     */
+    PageFile(Path path, int capacity) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.capacity = Math.max(capacity, 4);
+        if (channel.size() == 0) {
+            header.putInt(0, MAGIC).putInt(4, VERSION).putInt(ROOT, NONE).putInt(PAGE_COUNT, 1)
+                    .putInt(FREE_HEAD, NONE);
+            isHeaderDirty = true;
+            return;
+        }
+        channel.read(header, 0);
+        pagesRead++;
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException(path + " is not a Duke page file");
+        }
+    }
+
+    int root() {
+        return header.getInt(ROOT);
+    }
+
+    void setRoot(int page) {
+        header.putInt(ROOT, page);
+        isHeaderDirty = true;
+    }
+
+    /**
+     * Returns the page, reading it from the file if it is not in the cache.
+     *
+     * @param number page number, at least 1.
+     * @return the page.
+     * @throws IOException if the page cannot be read.
+     */
+    Page get(int number) throws IOException {
+        Page page = cache.get(number);
+        if (page == null) {
+            ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+            channel.read(data, (long) number * PAGE_SIZE);
+            pagesRead++;
+            page = new Page(number, data);
+            cache.put(number, page);
+            evict();
+        }
+        return page;
+    }
+
+    /**
+     * Returns a zeroed page, reusing a freed page if there is one.
+     *
+     * @return new page, already marked as changed.
+     * @throws IOException if a freed page cannot be read or a changed page cannot be written out.
+     */
+    Page allocate() throws IOException {
+        int free = header.getInt(FREE_HEAD);
+        Page page;
+        if (free != NONE) {
+            page = get(free);
+            header.putInt(FREE_HEAD, page.data.getInt(NEXT_FREE));
+            header.putInt(FREE_COUNT, Math.max(header.getInt(FREE_COUNT) - 1, 0));
+            page.data.clear();
+            page.data.put(new byte[PAGE_SIZE]);
+            page.data.clear();
+        } else {
+            int number = header.getInt(PAGE_COUNT);
+            header.putInt(PAGE_COUNT, number + 1);
+            page = new Page(number, ByteBuffer.allocate(PAGE_SIZE));
+            cache.put(number, page);
+            evict();
+        }
+        isHeaderDirty = true;
+        page.isDirty = true;
+        return page;
+    }
+
+    /**
+     * Puts the page on the list of freed pages.
+     *
+     * @param number page number no longer in use.
+     * @throws IOException if the page cannot be read.
+     */
+    void free(int number) throws IOException {
+        Page page = get(number);
+        page.data.put(0, (byte) 0);
+        page.data.putInt(NEXT_FREE, header.getInt(FREE_HEAD));
+        page.isDirty = true;
+        header.putInt(FREE_HEAD, number);
+        header.putInt(FREE_COUNT, header.getInt(FREE_COUNT) + 1);
+        isHeaderDirty = true;
+    }
+
+    /**
+     * Returns how many pages the file has, the header and freed pages included.
+     *
+     * @return number of pages.
+     */
+    int pageCount() {
+        return header.getInt(PAGE_COUNT);
+    }
+
+    /**
+     * Returns how many pages are on the list of freed pages.
+     *
+     * @return number of freed pages not handed out again yet.
+     */
+    int freePages() {
+        return header.getInt(FREE_COUNT);
+    }
+
+    /**
+     * Drops the least recently used unchanged pages while the cache holds more than its capacity.
+     * The page used last is never dropped, as its caller is about to change it.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Integer, Page>> eldest = cache.entrySet().iterator();
+        for (int older = cache.size() - 1; older > 0 && cache.size() > capacity; older--) {
+            if (!eldest.next().getValue().isDirty) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private void write(Page page) throws IOException {
+        if (page.isDirty) {
+            channel.write(page.data.duplicate().clear(), (long) page.number * PAGE_SIZE);
+            pagesWritten++;
+            page.isDirty = false;
+        }
+    }
+
+    /**
+     * Writes every changed page, then the header, and waits for them to reach the disk.
+     * Pages over the capacity of the cache are dropped once written.
+     *
+     * @throws IOException if a page cannot be written.
+     */
+    void flush() throws IOException {
+        for (Page page : cache.values()) {
+            write(page);
+        }
+        if (isHeaderDirty) {
+            channel.force(false);
+            channel.write(header.duplicate().clear(), 0);
+            pagesWritten++;
+            isHeaderDirty = false;
+        }
+        channel.force(false);
+        evict();
+    }
+
+    /**
+     * Returns how many pages were written to the file so far, for checking that a small change stays small.
+     *
+     * @return number of page writes, the header included.
+     */
+    long pagesWritten() {
+        return pagesWritten;
+    }
+
+    /**
+     * Returns how many pages were read from the file so far, the header included.
+     *
+     * @return number of page reads.
+     */
+    long pagesRead() {
+        return pagesRead;
+    }
+
+    /**
+     * Closes the file without writing the pages changed since the last flush.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    void discard() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * A page of the file, as held in the cache.
+     */
+    static class Page {
+        final int number;
+        final ByteBuffer data;
+        boolean isDirty;
+
+        Page(int number, ByteBuffer data) {
+            this.number = number;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the tasks in a page file next to where the text file would be, e.g. ./data/tasks.pages, in a
+ * {@link BPlusTree} keyed by task id. Ids increase along the task list, so walking the tree gives the tasks in
+ * order, and they are kept across restarts. A save only writes the tasks that changed since the last load or
+ * save, so marking one task rewrites one leaf rather than the whole list.
+ * Pages freed by deletes are reused by later saves. Once more than half the file is freed pages, a save
+ * writes the tasks afresh to a new file and moves it over the old one, so the file shrinks with the list.
+ * A missing page file is filled from the text file, if there is one, the first time it is loaded.
+ * Selected with {@code -Dduke.storage=pages}; {@code -Dduke.pages.cached} sets how many pages are kept in
+ * memory, 256 by default.
+ */
+class PageFileBackend implements StorageBackend {
+    private static final int CACHED_PAGES = Integer.getInteger("duke.pages.cached", 256);
+    private static final int MIN_FREE_PAGES = 8;
+
+    private final Path path;
+    private final StorageBackend legacy;
+    private PageFile pages;
+    private BPlusTree tree;
+    private long[] savedIds = new long[0];
+    private String[] savedLines = new String[0];
+    private long lastBytes;
+
+    /**
+     * Initializes a new PageFileBackend object
+     * @param path page file, created on the first load
+     * @param legacy text file imported if the page file does not exist yet
+     */
+    PageFileBackend(Path path, StorageBackend legacy) {
+        this.path = path;
+        this.legacy = legacy;
+    }
+
+    /**
+     * Returns the page file kept instead of the given text file, e.g. tasks.pages for tasks.txt.
+     */
+    static Path fileFor(Path textFile) {
+        String name = textFile.getFileName().toString();
+        return textFile.resolveSibling(name.replaceFirst("\\.txt$", "") + ".pages");
+    }
+
+    @Override
+    public Path file() {
+        return path;
+    }
+
+    @Override
+    public TaskList load() throws IOException {
+        read();
+        return TaskList.restore(savedIds, savedLines);
+    }
+
+    @Override
+    public List<String> lines() throws IOException {
+        read();
+        return new ArrayList<>(Arrays.asList(savedLines));
+    }
+
+    /**
+     * Reads every task from the file, dropping cached pages first since another Duke may have changed them.
+     */
+    private void read() throws IOException {
+        if (pages != null) {
+            pages.discard();
+        }
+        boolean isNew = !Files.exists(path);
+        pages = new PageFile(path, CACHED_PAGES);
+        tree = new BPlusTree(pages);
+        if (isNew && legacy != null) {
+            List<String> lines = legacy.lines();
+            for (int i = 0; i < lines.size(); i++) {
+                tree.put(i, lines.get(i));
+            }
+            pages.flush();
+        }
+        List<Long> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        tree.scan(keys, values);
+        savedIds = keys.stream().mapToLong(Long::longValue).toArray();
+        savedLines = values.toArray(new String[0]);
+        lastBytes = pages.pagesRead() * PageFile.PAGE_SIZE;
+    }
+
+    /**
+     * Writes the tasks that differ from the last load or save, walking both in id order.
+     */
+    @Override
+    public void save(TaskList tasks) throws IOException {
+        if (pages == null) {
+            read();
+        }
+        long written = pages.pagesWritten();
+        int n = tasks.getValidLen();
+        long[] ids = new long[n];
+        String[] lines = new String[n];
+        int i = 0;
+        int j = 0;
+        while (i < savedIds.length || j < n) {
+            if (j < n) {
+                ids[j] = tasks.id(j);
+                lines[j] = tasks.get(j);
+            }
+            boolean hasOld = i < savedIds.length;
+            boolean hasNew = j < n;
+            if (hasOld && (!hasNew || savedIds[i] < ids[j])) {
+                tree.delete(savedIds[i]);
+                i++;
+            } else if (hasNew && (!hasOld || ids[j] < savedIds[i])) {
+                tree.put(ids[j], lines[j]);
+                j++;
+            } else {
+                if (!savedLines[i].equals(lines[j])) {
+                    tree.put(ids[j], lines[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        pages.flush();
+        lastBytes = (pages.pagesWritten() - written) * PageFile.PAGE_SIZE;
+        savedIds = ids;
+        savedLines = lines;
+        if (pages.freePages() >= MIN_FREE_PAGES && pages.freePages() * 2 > pages.pageCount()) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the saved tasks to a new page file and moves it over the old one in one step, so a crash leaves
+     * either file whole. If the old file cannot be replaced, e.g. while another Duke has it open on a system
+     * that forbids that, it is kept and its freed pages are reused as before.
+     */
+    private void compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(compacted);
+        try (PageFile fresh = new PageFile(compacted, CACHED_PAGES)) {
+            BPlusTree freshTree = new BPlusTree(fresh);
+            for (int i = 0; i < savedIds.length; i++) {
+                freshTree.put(savedIds[i], savedLines[i]);
+            }
+        }
+        pages.discard();
+        try {
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastBytes += Files.size(path);
+        } catch (IOException e) {
+            Files.deleteIfExists(compacted);
+        }
+        pages = new PageFile(path, CACHED_PAGES);
+        tree = new BPlusTree(pages);
+    }
+
+    @Override
+    public long lastBytes() {
+        return lastBytes;
+    }
+
+    /**
+     * Returns how many pages were written since the file was last read, for checking that saves stay small.
+     */
+    long pagesWritten() {
+        return pages == null ? 0 : pages.pagesWritten();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pages != null) {
+            pages.close();
+            pages = null;
+        }
+    }
+}
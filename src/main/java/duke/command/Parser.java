@@ -1,25 +1,18 @@
 package duke.command;
 
-import java.util.Arrays;
-
-import duke.exception.DukeException;
 import duke.exception.EmptyTaskListException;
 import duke.exception.IndexNotNumberException;
-import duke.exception.InvalidEventDateTimeException;
 import duke.exception.InvalidIndexException;
 import duke.exception.MissingContentException;
-import duke.task.Event;
 
 /**
  * Makes sense of what users say
  */
 public class Parser {
-    private static final String inSecond = "00";
-    private static final int secondToEndIndex = 2;
     private static final int minSize = 0;
     private static String lastCommand = "";
     private static String lastCommandDetail = "";
-    private static TaskList lastTaskList = new TaskList();
+    private static Change lastChange;
     private static final Ui ui = new Ui();
 
     /**
@@ -39,19 +32,11 @@ public class Parser {
     }
 
     /**
-     * Updates last task list (update to before most recent command is applied on Duke)
-     * @param newTaskList what the task list was before the most recent command is applied
-     */
-    public static void updateLastTaskList(TaskList newTaskList) {
-        lastTaskList = newTaskList;
-    }
-
-    /**
-     * Returns the last task list - the task list before last command is applied
-     * @return last task list
+     * Updates the change that undoes the most recent command
+     * @param newChange change taking the most recent command back
      */
-    private static TaskList getLastTaskList() {
-        return lastTaskList;
+    static void updateLastChange(Change newChange) {
+        lastChange = newChange;
     }
 
     public static String getLastCommand() {
@@ -66,16 +51,14 @@ public class Parser {
      */
     public static String undo(TaskList taskList) {
         String commandType = Parser.parseLastCommandType(lastCommand);
-        String[] originalArray = Arrays.copyOf(taskList.readTaskList(), 100);
-        TaskList originalTaskList = new TaskList(originalArray);
-        if (commandType.equals("clear") || commandType.equals("undo")) {
-            taskList.overwrite(lastTaskList);
-            Parser.updateLastTaskList(originalTaskList);
+        if (lastChange == null) {
+            return ui.saysUnableToUndo();
+        } else if (commandType.equals("clear") || commandType.equals("undo")) {
+            lastChange = taskList.apply(lastChange);
             Parser.updateLastCommand("undo");
             return ui.saysUnDo(commandType);
         } else if (!commandType.equals("last command is unable to undo")) {
-            taskList.overwrite(lastTaskList);
-            Parser.updateLastTaskList(originalTaskList);
+            lastChange = taskList.apply(lastChange);
             Parser.updateLastCommand("undo");
             return ui.saysUnDo(commandType, lastCommandDetail);
         }
@@ -166,223 +149,4 @@ public class Parser {
         }
         return taskIndex;
     }
-
-    /**
-     * Returns the detail/content of deadline.
-     * Given that the detail is not empty.
-     *
-     * @param arr an array of the input.
-     * @return the String detail.
-     * @throws MissingContentException if arr is empty.
-     */
-    public String getDeadlineDetail(String[] arr) throws MissingContentException {
-        String detail = "";
-        if (arr.length <= 1) {
-            throw new MissingContentException();
-        }
-        for (int j = 1; j < arr.length; j++) {
-            if (String.valueOf(arr[j]).equals("/by")) {
-                break;
-            }
-            detail += arr[j];
-            detail += " ";
-        }
-        return detail;
-    }
-
-    /**
-     * Returns index of the input array where indicates time of the deadline.
-     * Given that the arr is not empty.
-     *
-     * @param arr an array of the input.
-     * @return the index of deadline time.
-     * @throws MissingContentException if arr is empty.
-     */
-    private int getDeadlineTimeIndex(String[] arr) throws MissingContentException {
-        if (arr.length <= 1) {
-            throw new MissingContentException();
-        }
-        int pointer = 0;
-        for (int j = 1; j < arr.length; j++) {
-            if (String.valueOf(arr[j]).equals("/by")) {
-                pointer = j + 1;
-                break;
-            }
-        }
-        if (pointer == minSize) {
-            throw new MissingContentException();
-        }
-        return pointer;
-    }
-
-    /**
-     * Gets full deadline detail and date from user command
-     * @param command user input
-     * @return deadline in full detail and date
-     */
-    public String getDeadlineFull(String[] command) {
-        String remaining = "";
-        try {
-            int pointer = this.getDeadlineTimeIndex(command);
-            for (int j = pointer; j < command.length; j++) {
-                if (String.valueOf(command[j]).equals("/")) {
-                    remaining += "-";
-                } else {
-                    remaining += command[j];
-                }
-                if (j != command.length - 1) {
-                    remaining += " ";
-                }
-            }
-        } catch (DukeException e) {
-            return (e.getMessage());
-        }
-        return remaining;
-    }
-
-    /**
-     * Returns index of the input array where indicates starting time of the event.
-     * Given that the arr is not empty.
-     *
-     * @param arr an array of the input.
-     * @return the index of starting time.
-     * @throws MissingContentException if arr is empty.
-     */
-    private int getEventStartTimeIndex(String[] arr) throws MissingContentException {
-        int startIndex = minSize;
-        for (int j = 1; j < arr.length; j++) {
-            if (String.valueOf(arr[j]).equals("/from")) {
-                startIndex = j + 1;
-                break;
-            }
-        }
-        if (startIndex == minSize) {
-            throw new MissingContentException();
-        }
-        return startIndex;
-    }
-
-    /**
-     * Returns event detail from input array.
-     * Given that the arr is not empty.
-     *
-     * @param arr an array of the input.
-     * @return event detail.
-     * @throws MissingContentException if arr is empty.
-     */
-    private String getEventDetail(String[] arr) throws MissingContentException {
-        if (arr.length <= 1) {
-            throw new MissingContentException();
-        }
-        String detail = "";
-        for (int j = 1; j < arr.length; j++) {
-            if (String.valueOf(arr[j]).equals("/from")) {
-                break;
-            }
-            detail += arr[j];
-            detail += " ";
-        }
-        assert (detail.length() != minSize) : "Parser could not process event task as its detail is empty";
-        return detail;
-    }
-
-    /**
-     * Returns index of the input array where indicates ending time of the event.
-     * Given that the arr is not empty.
-     *
-     * @param arr an array of the input.
-     * @param startIndex starting index where indicates starting time of event.
-     * @return the index of ending time.
-     */
-    private int getEventEndTimeIndex(String[] arr, int startIndex) throws MissingContentException {
-        int endIndex = minSize;
-        for (int j = startIndex; j < arr.length; j++) {
-            if (String.valueOf(arr[j]).equals("/to")) {
-                endIndex = j + 1;
-                break;
-            }
-        }
-        if (endIndex == minSize) {
-            throw new MissingContentException();
-        }
-        return endIndex;
-    }
-
-    /**
-     * Returns index of the input array where indicates ending time of the event.
-     * Given that the arr is not empty.
-     *
-     * @param arr an array of the input.
-     * @param startIndex starting index where indicates starting time of event.
-     * @param endIndex ending index where indicates ending time of event.
-     * @return an array consists of event start time and event ent time specifically in String.
-     */
-    private String[] getEventTime(String[] arr, int startIndex, int endIndex) {
-        String[] eventTime = new String[4];
-        String start = "";
-        String end = "";
-        for (int j = startIndex; j < endIndex - 1; j++) {
-            if (String.valueOf(arr[j]).equals("/")) {
-                start += "-";
-            } else {
-                start += arr[j];
-            }
-            if (j != endIndex - secondToEndIndex) {
-                start += " ";
-            }
-        }
-        for (int k = endIndex; k < arr.length; k++) {
-            if (String.valueOf(arr[k]).equals("/")) {
-                end += "-";
-            } else {
-                end += arr[k];
-            }
-            if (k != arr.length - 1) {
-                end += " ";
-            }
-        }
-        eventTime[0] = Parser.getTime(start);
-        eventTime[1] = Parser.getTime(end);
-        return eventTime;
-    }
-
-    private static String getTime(String s) throws IndexOutOfBoundsException {
-        String track = String.valueOf(s.charAt(minSize));
-        int tracker = minSize;
-        while (!track.equals(" ")) {
-            tracker++;
-            track = String.valueOf(s.charAt(tracker));
-        }
-        assert tracker != minSize : "Cannot get event time - missing input from user";
-        String date = (s.substring(0, tracker));
-        String time = (s.substring(tracker + 1));
-        String timeFormatted = "";
-        for (int i = 0; i < time.length(); i += 2) {
-            timeFormatted += (time.substring(i, i + 2));
-            timeFormatted += ":";
-        }
-        timeFormatted += inSecond;
-        return date + "T" + timeFormatted;
-    }
-
-    /**
-     * Returns event in correct format based on user's input
-     * @param command input from user
-     * @return event in correct format
-     * @throws MissingContentException if user did not provide event detail
-     * @throws InvalidEventDateTimeException if event is in incorrect date time format
-     */
-    public static Event getEventFull(String[] command) throws MissingContentException, InvalidEventDateTimeException {
-        int startIndex = new Parser()
-                .getEventStartTimeIndex(command);
-        int endIndex = new Parser()
-                .getEventEndTimeIndex(command, startIndex);
-        String detail = new Parser()
-                .getEventDetail(command);
-        String start = (new Parser()
-                .getEventTime(command, startIndex, endIndex))[0];
-        String end = (new Parser()
-                .getEventTime(command, startIndex, endIndex))[1];
-        return new Event("event", detail, start, end);
-    }
 }
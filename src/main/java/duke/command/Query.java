@@ -0,0 +1,403 @@
+package duke.command;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import duke.exception.InvalidQueryException;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.TaskType;
+
+/**
+ * Represents a filter-and-sort query over the task list,
+ * e.g. {@code list /type D /done no /before 2026-12-01 /sort date /limit 20}.
+ * Tags may be given anywhere in the query: {@code #ops #urgent} keeps tasks with both tags, {@code #ops|#infra}
+ * tasks with either, and {@code -#later} tasks without it.
+ * The query is parsed once into predicates and a comparator, which are then run against the task list.
+ */
+public class Query {
+    private Character type;
+    private Boolean done;
+    private LocalDate before;
+    private LocalDate after;
+    private String keyword;
+    private String sortKey;
+    private int limit = Integer.MAX_VALUE;
+    private final List<TagClause> tagClauses = new ArrayList<>();
+
+    private Predicate<String> linePredicate = line -> true;
+    private Predicate<LocalDateTime> timePredicate;
+    private Comparator<Row> comparator;
+    private boolean needsLine;
+
+    private Query() {}
+
+    /**
+     * Returns the compiled query given by the user.
+     *
+     * @param arr input array, starting with "list".
+     * @return compiled query.
+     * @throws InvalidQueryException if a flag is unknown or its value is malformed.
+     */
+    public static Query parse(String[] arr) throws InvalidQueryException {
+        Query query = new Query();
+        try {
+            int j = 1;
+            while (j < arr.length) {
+                if (isTagTerm(arr[j])) {
+                    query.tagClauses.add(TagClause.parse(arr[j]));
+                    j++;
+                    continue;
+                }
+                if (j + 1 >= arr.length) {
+                    throw new InvalidQueryException();
+                }
+                String value = arr[j + 1];
+                if (value.isEmpty()) {
+                    throw new InvalidQueryException();
+                }
+                switch (arr[j]) {
+                case "/type":
+                    query.type = Character.toUpperCase(value.charAt(0));
+                    if ("TDE".indexOf(query.type) < 0) {
+                        throw new InvalidQueryException();
+                    }
+                    break;
+                case "/done":
+                    query.done = parseYesNo(value);
+                    break;
+                case "/before":
+                    query.before = LocalDate.parse(value);
+                    break;
+                case "/after":
+                    query.after = LocalDate.parse(value);
+                    break;
+                case "/has":
+                    query.keyword = value;
+                    break;
+                case "/sort":
+                    query.sortKey = value.toLowerCase();
+                    break;
+                case "/limit":
+                    query.limit = Integer.parseInt(value);
+                    if (query.limit < 1) {
+                        throw new InvalidQueryException();
+                    }
+                    break;
+                default:
+                    throw new InvalidQueryException();
+                }
+                j += 2;
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidQueryException();
+        }
+        query.compile();
+        return query;
+    }
+
+    /**
+     * Returns the query for a one-word list command such as {@code list done} or {@code list todo}.
+     *
+     * @param word word following "list".
+     * @return compiled query.
+     * @throws InvalidQueryException if the word is not a status or a task type.
+     */
+    public static Query shorthand(String word) throws InvalidQueryException {
+        switch (word.toLowerCase()) {
+        case "done":
+            return parse(new String[] {"list", "/done", "yes"});
+        case "undone":
+            return parse(new String[] {"list", "/done", "no"});
+        case "todo":
+        case "deadline":
+        case "event":
+            return parse(new String[] {"list", "/type", word.substring(0, 1)});
+        default:
+            throw new InvalidQueryException();
+        }
+    }
+
+    /**
+     * Returns whether the word of a list command is a tag term such as "#ops", "#ops|#infra" or "-#later".
+     *
+     * @param word word of the command.
+     * @return true if it starts with # or -#.
+     */
+    static boolean isTagTerm(String word) {
+        return word.startsWith("#") || word.startsWith("-#");
+    }
+
+    private static boolean parseYesNo(String value) throws InvalidQueryException {
+        if (value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("y")) {
+            return true;
+        } else if (value.equalsIgnoreCase("no") || value.equalsIgnoreCase("n")) {
+            return false;
+        }
+        throw new InvalidQueryException();
+    }
+
+    /**
+     * Builds the pipeline. Type and done filters are answered by the task list's status index, so they never
+     * touch a line. The keyword filter runs on the rendered line. The date filters and sorting by date go by
+     * the time of each task that passes it, read from the store when it keeps dates and decoded from the line
+     * otherwise, so lines are only rendered when something needs them.
+     */
+    private void compile() throws InvalidQueryException {
+        if (keyword != null) {
+            String word = keyword;
+            linePredicate = linePredicate.and(line -> line.contains(word));
+        }
+        if (before != null || after != null) {
+            LocalDate b = before;
+            LocalDate a = after;
+            timePredicate = time -> {
+                LocalDate day = time == null ? null : time.toLocalDate();
+                return day != null && (b == null || day.isBefore(b)) && (a == null || day.isAfter(a));
+            };
+        }
+        if (sortKey != null) {
+            comparator = comparatorFor(sortKey).thenComparingInt(row -> row.index);
+        }
+        needsLine = keyword != null || sortKey != null && !sortKey.equals("date");
+    }
+
+    private static Comparator<Row> comparatorFor(String key) throws InvalidQueryException {
+        switch (key) {
+        case "date":
+            return Comparator.comparing(row -> row.time, Comparator.nullsLast(Comparator.naturalOrder()));
+        case "type":
+            return Comparator.comparing(row -> row.line.charAt(1));
+        case "done":
+            return Comparator.comparing(row -> row.line.charAt(4));
+        case "text":
+            return Comparator.comparing(row -> row.line.substring(7));
+        default:
+            throw new InvalidQueryException();
+        }
+    }
+
+    /**
+     * Returns the time used for date filters and sorting by date, matching the order of {@link SortedViews}.
+     *
+     * @param task decoded task.
+     * @return start of the day of a deadline, start of an event, or null for other tasks.
+     */
+    static LocalDateTime timeOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getDay().atStartOfDay();
+        } else if (task instanceof Event) {
+            return ((Event) task).getStart();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type kept by {@code /type}, answered by the status index rather than by the stored line.
+     *
+     * @return type to keep, or null for every type.
+     */
+    TaskType typeFilter() {
+        return type == null ? null : TaskType.fromCode(type);
+    }
+
+    /**
+     * Returns the status kept by {@code /done}, answered by the status index rather than by the stored line.
+     *
+     * @return true for done tasks, false for tasks not done, or null for both.
+     */
+    Boolean doneFilter() {
+        return done;
+    }
+
+    /**
+     * Returns whether the query filters by tag, answered by the tag index rather than by the stored line.
+     *
+     * @return true if tags were given.
+     */
+    boolean hasTagFilter() {
+        return !tagClauses.isEmpty();
+    }
+
+    /**
+     * Returns the ids of the tasks passing the tag filters, worked out with bitmap operations on the tag index.
+     * The required tags are intersected from the rarest up, so the intermediate bitmaps stay small.
+     *
+     * @param index tag index of the task list.
+     * @return ids of matching tasks, a new bitmap.
+     */
+    TagBitmap matchTags(TagIndex index) {
+        List<TagBitmap> required = new ArrayList<>();
+        TagBitmap excluded = new TagBitmap();
+        for (TagClause clause : tagClauses) {
+            TagBitmap ids = index.get(clause.tags.get(0));
+            for (int k = 1; k < clause.tags.size(); k++) {
+                ids = TagBitmap.or(ids, index.get(clause.tags.get(k)));
+            }
+            if (clause.isNegated) {
+                excluded = TagBitmap.or(excluded, ids);
+            } else {
+                required.add(ids);
+            }
+        }
+        required.sort(Comparator.comparingInt(TagBitmap::cardinality));
+        TagBitmap res = required.isEmpty() ? index.all() : required.get(0);
+        for (int k = 1; k < required.size() && !res.isEmpty(); k++) {
+            res = TagBitmap.and(res, required.get(k));
+        }
+        return TagBitmap.andNot(res, excluded);
+    }
+
+    /**
+     * Returns whether the query is best answered by walking the sorted views instead of the whole list.
+     *
+     * @return true if the query sorts by date.
+     */
+    boolean usesDateView() {
+        return "date".equals(sortKey);
+    }
+
+    /**
+     * Returns the indexes of matching tasks by walking the sorted views, so the first k rows cost about
+     * O(k log n). {@code /after} starts the walk part-way through the view, {@code /before} ends it early,
+     * and {@code /type D} or {@code /type E} picks the single view that can match. Tasks without a date
+     * come last, in the order they were added, unless a date filter rules them out.
+     *
+     * @param tasks task list to query.
+     * @param views sorted views of the same task list.
+     * @param candidates tasks passing the type and done filters, from the status index.
+     * @return indexes of matching tasks.
+     */
+    List<Integer> run(TaskList tasks, SortedViews views, BitSet candidates) {
+        List<Integer> res = new ArrayList<>();
+        char viewType = type == null ? ' ' : type;
+        LocalDateTime from = after == null ? null : after.plusDays(1).atStartOfDay();
+        Iterator<SortedViews.Entry> entries = views.byDate(viewType, from);
+        while (entries.hasNext() && res.size() < limit) {
+            SortedViews.Entry entry = entries.next();
+            if (before != null && !entry.key.toLocalDate().isBefore(before)) {
+                break;
+            }
+            int position = tasks.positionOf(entry.id);
+            if (candidates.get(position) && linePredicate.test(tasks.get(position))) {
+                res.add(position);
+            }
+        }
+        if (timePredicate != null || viewType == 'D' || viewType == 'E') {
+            return res;
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0 && res.size() < limit; i = candidates.nextSetBit(i + 1)) {
+            String line = tasks.get(i);
+            char t = line.charAt(1);
+            if (t != 'D' && t != 'E' && linePredicate.test(line)) {
+                res.add(i);
+            }
+        }
+        return res;
+    }
+
+    private boolean needsTime() {
+        return timePredicate != null || "date".equals(sortKey);
+    }
+
+    /**
+     * Returns the indexes of matching tasks, in the order they should be shown.
+     * Only candidates are looked at, and only their dates when that is all the query needs.
+     * Without sorting the scan stops as soon as the limit is reached.
+     * With a limit smaller than the number of matches, only the best rows are kept in a bounded heap
+     * instead of sorting every match.
+     *
+     * @param tasks task list to query.
+     * @param candidates tasks passing the type and done filters, from the status index.
+     * @return indexes of matching tasks.
+     */
+    List<Integer> run(TaskList tasks, BitSet candidates) {
+        List<Integer> res = new ArrayList<>();
+        PriorityQueue<Row> heap = comparator == null ? null
+                : new PriorityQueue<>(Collections.reverseOrder(comparator));
+        List<Row> all = new ArrayList<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            String line = needsLine ? tasks.get(i) : null;
+            if (line != null && !linePredicate.test(line)) {
+                continue;
+            }
+            LocalDateTime time = needsTime() ? tasks.startOf(i, line) : null;
+            if (timePredicate != null && !timePredicate.test(time)) {
+                continue;
+            }
+            if (comparator == null) {
+                res.add(i);
+                if (res.size() >= limit) {
+                    return res;
+                }
+            } else if (limit == Integer.MAX_VALUE) {
+                all.add(new Row(i, line, time));
+            } else {
+                heap.add(new Row(i, line, time));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+        if (comparator == null) {
+            return res;
+        }
+        all.addAll(heap);
+        all.sort(comparator);
+        for (Row row : all) {
+            res.add(row.index);
+        }
+        return res;
+    }
+
+    /**
+     * One tag term of a query: tasks with any of its tags, or with none of them if it starts with -.
+     */
+    private static class TagClause {
+        private final List<String> tags;
+        private final boolean isNegated;
+
+        private TagClause(List<String> tags, boolean isNegated) {
+            this.tags = tags;
+            this.isNegated = isNegated;
+        }
+
+        static TagClause parse(String term) throws InvalidQueryException {
+            boolean isNegated = term.startsWith("-");
+            List<String> tags = new ArrayList<>();
+            for (String part : term.substring(isNegated ? 1 : 0).split("\\|", -1)) {
+                List<String> parsed = Task.tagsOf(part);
+                if (parsed.size() != 1 || parsed.get(0).length() != part.length() - 1) {
+                    throw new InvalidQueryException();
+                }
+                tags.add(parsed.get(0));
+            }
+            return new TagClause(tags, isNegated);
+        }
+    }
+
+    /**
+     * A task being considered by the query, with its line and time if the query needs them.
+     */
+    static class Row {
+        final int index;
+        final String line;
+        final LocalDateTime time;
+
+        Row(int index, String line, LocalDateTime time) {
+            this.index = index;
+            this.line = line;
+            this.time = time;
+        }
+    }
+}
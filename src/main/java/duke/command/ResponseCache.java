@@ -0,0 +1,151 @@
+package duke.command;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers Duke's answers to commands that only read the task list, such as {@code list} and {@code find}.
+ * An answer is stamped with the version of the task list it was computed from, so it is never given again once
+ * the list has changed. Answers are kept up to a budget of characters, dropping the least recently used first.
+ */
+public class ResponseCache {
+    private final long maxChars;
+    private final LinkedHashMap<Key, Answer> answers = new LinkedHashMap<>(16, 0.75f, true);
+    private long chars;
+    private long hits;
+    private long misses;
+    private long stale;
+    private long evictions;
+
+    /**
+     * Initializes an empty cache
+     * @param maxChars most characters of commands and answers kept at once
+     */
+    public ResponseCache(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Computes an answer from the task list.
+     *
+     * @param <E> exception thrown for an invalid command.
+     */
+    @FunctionalInterface
+    public interface Source<E extends Exception> {
+        /**
+         * Returns the answer.
+         *
+         * @return Duke's answer.
+         * @throws E if the command is invalid; such answers are not kept.
+         */
+        String get() throws E;
+    }
+
+    /**
+     * Returns the answer to the command, computing it only if the task list changed since it was last given.
+     *
+     * @param taskList task list the command reads.
+     * @param command command as typed, used as the key together with the task list.
+     * @param source computes the answer on a miss.
+     * @param <E> exception thrown for an invalid command.
+     * @return Duke's answer.
+     * @throws E if computing the answer fails.
+     */
+    public <E extends Exception> String get(TaskList taskList, String command, Source<E> source) throws E {
+        Key key = new Key(taskList.serial(), command);
+        long version = taskList.version();
+        synchronized (this) {
+            Answer answer = answers.get(key);
+            if (answer != null && answer.version == version) {
+                hits++;
+                return answer.text;
+            }
+            misses++;
+            if (answer != null) {
+                stale++;
+                remove(key, answer);
+            }
+        }
+        String text = source.get();
+        synchronized (this) {
+            long size = weigh(command, text);
+            if (size <= maxChars && taskList.version() == version) {
+                Answer old = answers.put(key, new Answer(version, text));
+                if (old != null) {
+                    chars -= weigh(command, old.text);
+                }
+                chars += size;
+                evict();
+            }
+        }
+        return text;
+    }
+
+    private void remove(Key key, Answer answer) {
+        answers.remove(key);
+        chars -= weigh(key.command, answer.text);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Answer>> eldest = answers.entrySet().iterator();
+        while (chars > maxChars && eldest.hasNext()) {
+            Map.Entry<Key, Answer> entry = eldest.next();
+            chars -= weigh(entry.getKey().command, entry.getValue().text);
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long weigh(String command, String text) {
+        return command.length() + text.length();
+    }
+
+    /**
+     * Returns how well the cache is doing, e.g. "12 hits, 3 misses (80.0% hit rate), 1 stale, 0 evicted,
+     * 5 answers kept (2048 of 1048576 chars)".
+     *
+     * @return one-line summary of the counters.
+     */
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        double rate = lookups == 0 ? 0 : 100.0 * hits / lookups;
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d stale, %d evicted, %d answers kept"
+                + " (%d of %d chars)", hits, misses, rate, stale, evictions, answers.size(), chars, maxChars);
+    }
+
+    private static class Key {
+        private final long list;
+        private final String command;
+
+        Key(long list, String command) {
+            this.list = list;
+            this.command = command;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return list == other.list && command.equals(other.command);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(list, command);
+        }
+    }
+
+    private static class Answer {
+        private final long version;
+        private final String text;
+
+        Answer(long version, String text) {
+            this.version = version;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package duke.command;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the commands of a session, with the time each one arrived, to a compact trace file.
+ * Recording is off unless Duke is started with {@code -Dduke.record=path/to/session.trace}.
+ * A trace starts with a small header (magic number, version and the wall-clock start in milliseconds),
+ * followed by one record per command: the gap since the previous command in microseconds as a varint,
+ * then the length of the command in UTF-8 bytes as a varint and the bytes themselves.
+ * Traces of version 1 wrote the command in modified UTF-8, which cannot hold more than 65,535 bytes;
+ * they can still be read.
+ */
+public class SessionTrace {
+    private static final int MAGIC = 0x444b5452;
+    private static final int VERSION = 2;
+
+    private static SessionTrace recorder;
+    private static boolean isChecked;
+
+    private final DataOutputStream out;
+    private long lastNanos;
+
+    SessionTrace(Path path) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        lastNanos = System.nanoTime();
+    }
+
+    /**
+     * Adds a command to the trace if recording is on.
+     * The trace is opened on the first command and flushed when Duke exits.
+     *
+     * @param command command as given by the user.
+     */
+    public static synchronized void record(String command) {
+        if (!isChecked) {
+            isChecked = true;
+            String path = System.getProperty("duke.record");
+            if (path != null) {
+                try {
+                    recorder = new SessionTrace(Paths.get(path));
+                    Runtime.getRuntime().addShutdownHook(new Thread(SessionTrace::stop));
+                } catch (IOException e) {
+                    System.err.println("Kyle cannot record this session: " + e.getMessage());
+                }
+            }
+        }
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.append(System.nanoTime(), command);
+        } catch (IOException e) {
+            System.err.println("Kyle stopped recording this session: " + e.getMessage());
+            stop();
+        }
+    }
+
+    /**
+     * Flushes and closes the trace, if one is being recorded.
+     */
+    public static synchronized void stop() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Kyle could not finish the recording: " + e.getMessage());
+        }
+        recorder = null;
+    }
+
+    void append(long nanos, String command) throws IOException {
+        byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        writeVarLong((nanos - lastNanos) / 1_000);
+        writeVarLong(bytes.length);
+        out.write(bytes);
+        lastNanos = nanos;
+    }
+
+    void close() throws IOException {
+        out.close();
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String readCommand(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Command too long in session trace: " + length + " bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the commands of a recorded session, in order.
+     * A trace cut short, e.g. because Duke was killed, is read up to its last whole command.
+     *
+     * @param path trace file.
+     * @return recorded commands.
+     * @throws IOException if the file cannot be read or is not a trace.
+     */
+    public static List<Entry> read(Path path) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt() == MAGIC ? in.readUnsignedByte() : -1;
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Not a Duke session trace: " + path);
+            }
+            in.readLong();
+            long micros = 0;
+            while (true) {
+                long gap;
+                try {
+                    gap = readVarLong(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                micros += gap;
+                try {
+                    entries.add(new Entry(micros, version == 1 ? in.readUTF() : readCommand(in)));
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * A recorded command and when it arrived.
+     */
+    public static class Entry {
+        private final long offsetMicros;
+        private final String command;
+
+        Entry(long offsetMicros, String command) {
+            this.offsetMicros = offsetMicros;
+            this.command = command;
+        }
+
+        /**
+         * Returns how long after recording started this command arrived.
+         *
+         * @return offset from the start of the recording in microseconds.
+         */
+        public long getOffsetMicros() {
+            return offsetMicros;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+    }
+}
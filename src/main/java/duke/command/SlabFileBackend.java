@@ -0,0 +1,100 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the tasks in a slab file next to where the text file would be, e.g. ./data/tasks.slab, laid out byte for
+ * byte as {@link OffHeapTaskStore} holds them in memory. Loading maps the file and works on it in place, without
+ * decoding a line, so even a list of millions of tasks loads in the time it takes to index it. Changes stay in
+ * memory until the next save, which writes the slabs to a new file and moves it over the old one.
+ * A missing slab file is filled from the text file, if there is one, the first time it is loaded.
+ * Selected with {@code -Dduke.storage=slab}.
+ */
+class SlabFileBackend implements StorageBackend {
+    private final Path path;
+    private final StorageBackend legacy;
+    private long lastBytes;
+
+    /**
+     * Initializes a new SlabFileBackend object
+     * @param path slab file, created on the first load
+     * @param legacy text file imported if the slab file does not exist yet
+     */
+    SlabFileBackend(Path path, StorageBackend legacy) {
+        this.path = path;
+        this.legacy = legacy;
+    }
+
+    /**
+     * Returns the slab file kept instead of the given text file, e.g. tasks.slab for tasks.txt.
+     */
+    static Path fileFor(Path textFile) {
+        String name = textFile.getFileName().toString();
+        return textFile.resolveSibling(name.replaceFirst("\\.txt$", "") + ".slab");
+    }
+
+    @Override
+    public Path file() {
+        return path;
+    }
+
+    @Override
+    public TaskList load() throws IOException {
+        return TaskList.over(read());
+    }
+
+    @Override
+    public List<String> lines() throws IOException {
+        OffHeapTaskStore store = read();
+        List<String> lines = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            lines.add(store.get(i));
+        }
+        return lines;
+    }
+
+    /**
+     * Maps the slab file, writing it from the text file first if it does not exist yet.
+     */
+    private OffHeapTaskStore read() throws IOException {
+        if (!Files.exists(path)) {
+            OffHeapTaskStore store = new OffHeapTaskStore();
+            if (legacy != null) {
+                List<String> lines = legacy.lines();
+                for (int i = 0; i < lines.size(); i++) {
+                    store.add(lines.get(i), i);
+                }
+            }
+            write(store);
+        }
+        OffHeapTaskStore store = OffHeapTaskStore.map(path);
+        lastBytes = Files.size(path);
+        return store;
+    }
+
+    @Override
+    public void save(TaskList tasks) throws IOException {
+        write(OffHeapTaskStore.of(tasks.store()));
+    }
+
+    /**
+     * Writes the store to a new file and moves it over the slab file in one step, so a crash leaves either file
+     * whole, and a store still mapped from the old file keeps reading the old one.
+     */
+    private void write(OffHeapTaskStore store) throws IOException {
+        Path fresh = path.resolveSibling(path.getFileName() + ".tmp");
+        store.save(fresh);
+        Files.move(fresh, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastBytes = Files.size(path);
+    }
+
+    @Override
+    public long lastBytes() {
+        return lastBytes;
+    }
+}
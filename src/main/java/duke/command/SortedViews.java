@@ -0,0 +1,138 @@
+package duke.command;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+
+/**
+ * Keeps deadlines sorted by day and events sorted by start, updated on every change to the task list.
+ * The insertion-ordered view is the task list itself.
+ */
+class SortedViews {
+    private final TreeSet<Entry> deadlines = new TreeSet<>();
+    private final TreeSet<Entry> events = new TreeSet<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    /**
+     * Adds the task with the given id to the view it belongs to, if any.
+     *
+     * @param id id of the task in the task list.
+     * @param line stored task line.
+     */
+    void add(long id, String line) {
+        Task task = Task.fromString(line);
+        Entry entry;
+        if (task instanceof Deadline) {
+            entry = new Entry(((Deadline) task).getDay().atStartOfDay(), id);
+            deadlines.add(entry);
+        } else if (task instanceof Event) {
+            entry = new Entry(((Event) task).getStart(), id);
+            events.add(entry);
+        } else {
+            return;
+        }
+        entries.put(id, entry);
+    }
+
+    /**
+     * Removes the task with the given id from its view.
+     *
+     * @param id id of the task in the task list.
+     */
+    void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            deadlines.remove(entry);
+            events.remove(entry);
+        }
+    }
+
+    /**
+     * Returns entries in order of their date, starting from the given time.
+     *
+     * @param type 'D' for deadlines only, 'E' for events only, anything else for both merged.
+     * @param from earliest time to return, null to start from the beginning.
+     * @return iterator over the entries.
+     */
+    Iterator<Entry> byDate(char type, LocalDateTime from) {
+        if (type == 'D') {
+            return tail(deadlines, from).iterator();
+        } else if (type == 'E') {
+            return tail(events, from).iterator();
+        }
+        return new Merged(tail(deadlines, from).iterator(), tail(events, from).iterator());
+    }
+
+    private static NavigableSet<Entry> tail(TreeSet<Entry> view, LocalDateTime from) {
+        if (view.isEmpty()) {
+            return Collections.emptyNavigableSet();
+        }
+        return from == null ? view : view.tailSet(new Entry(from, Long.MIN_VALUE), true);
+    }
+
+    /**
+     * A task in a sorted view, ordered by its date and then by its id (i.e. its position in the list).
+     */
+    static class Entry implements Comparable<Entry> {
+        final LocalDateTime key;
+        final long id;
+
+        Entry(LocalDateTime key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Merges two sorted iterators of entries into one.
+     */
+    private static class Merged implements Iterator<Entry> {
+        private final Iterator<Entry> first;
+        private final Iterator<Entry> second;
+        private Entry nextFirst;
+        private Entry nextSecond;
+
+        Merged(Iterator<Entry> first, Iterator<Entry> second) {
+            this.first = first;
+            this.second = second;
+            this.nextFirst = first.hasNext() ? first.next() : null;
+            this.nextSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry res;
+            if (nextSecond == null || (nextFirst != null && nextFirst.compareTo(nextSecond) <= 0)) {
+                res = nextFirst;
+                nextFirst = first.hasNext() ? first.next() : null;
+            } else {
+                res = nextSecond;
+                nextSecond = second.hasNext() ? second.next() : null;
+            }
+            return res;
+        }
+    }
+}
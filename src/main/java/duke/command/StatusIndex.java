@@ -0,0 +1,171 @@
+package duke.command;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import duke.task.TaskType;
+
+/**
+ * Keeps one bit per task for its done status and for each task type, with running counts,
+ * so counting is O(1) and filtering by status or type is a word-at-a-time scan of the bits.
+ */
+class StatusIndex {
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private BitSet done;
+    private final BitSet[] types;
+    private final int[] typeCounts;
+    private int doneCount;
+    private int size;
+
+    StatusIndex() {
+        done = new BitSet();
+        types = new BitSet[TYPES.length];
+        for (int t = 0; t < types.length; t++) {
+            types[t] = new BitSet();
+        }
+        typeCounts = new int[TYPES.length];
+    }
+
+    /**
+     * Appends a task.
+     *
+     * @param type type of the task, null if it is not a well-formed task.
+     * @param isDone whether the task is done.
+     */
+    void add(TaskType type, boolean isDone) {
+        if (type != null) {
+            types[type.ordinal()].set(size);
+            typeCounts[type.ordinal()]++;
+        }
+        if (isDone) {
+            done.set(size);
+            doneCount++;
+        }
+        size++;
+    }
+
+    /**
+     * Inserts a task at the given index, shifting the bits of later tasks up by one.
+     *
+     * @param i index of the task.
+     * @param type type of the task, null if it is not a well-formed task.
+     * @param isDone whether the task is done.
+     */
+    void insert(int i, TaskType type, boolean isDone) {
+        if (i < size) {
+            done = shiftUp(done, i);
+            for (int t = 0; t < types.length; t++) {
+                types[t] = shiftUp(types[t], i);
+            }
+        }
+        if (type != null) {
+            types[type.ordinal()].set(i);
+            typeCounts[type.ordinal()]++;
+        }
+        if (isDone) {
+            done.set(i);
+            doneCount++;
+        }
+        size++;
+    }
+
+    void setDone(int i, boolean isDone) {
+        if (done.get(i) != isDone) {
+            done.set(i, isDone);
+            doneCount += isDone ? 1 : -1;
+        }
+    }
+
+    /**
+     * Removes the task at the given index, shifting the bits of later tasks down by one.
+     */
+    void remove(int i) {
+        if (done.get(i)) {
+            doneCount--;
+        }
+        done = shiftDown(done, i);
+        for (int t = 0; t < types.length; t++) {
+            if (types[t].get(i)) {
+                typeCounts[t]--;
+            }
+            types[t] = shiftDown(types[t], i);
+        }
+        size--;
+    }
+
+    /**
+     * Returns the bits with bit i dropped and every later bit moved down by one, a 64-bit word at a time.
+     */
+    private static BitSet shiftDown(BitSet bits, int i) {
+        long[] words = bits.toLongArray();
+        int w = i >>> 6;
+        if (w >= words.length) {
+            return bits;
+        }
+        long below = (1L << (i & 63)) - 1;
+        words[w] = (words[w] & below) | ((words[w] >>> 1) & ~below);
+        for (int k = w; k < words.length; k++) {
+            if (k > w) {
+                words[k] >>>= 1;
+            }
+            if (k + 1 < words.length) {
+                words[k] |= words[k + 1] << 63;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns the bits with every bit from i on moved up by one and bit i cleared, a 64-bit word at a time.
+     */
+    private static BitSet shiftUp(BitSet bits, int i) {
+        long[] words = bits.toLongArray();
+        int w = i >>> 6;
+        if (w >= words.length) {
+            return bits;
+        }
+        words = Arrays.copyOf(words, words.length + 1);
+        for (int k = words.length - 1; k > w; k--) {
+            words[k] = (words[k] << 1) | (words[k - 1] >>> 63);
+        }
+        long below = (1L << (i & 63)) - 1;
+        words[w] = (words[w] & below) | ((words[w] << 1) & ~below & ~(1L << (i & 63)));
+        return BitSet.valueOf(words);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doneCount() {
+        return doneCount;
+    }
+
+    int count(TaskType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the tasks of the given type and status.
+     *
+     * @param type type to keep, null for every type.
+     * @param isDone status to keep, null for both.
+     * @return bits of the matching tasks.
+     */
+    BitSet matching(TaskType type, Boolean isDone) {
+        BitSet res;
+        if (type != null) {
+            res = (BitSet) types[type.ordinal()].clone();
+        } else {
+            res = new BitSet(size);
+            res.set(0, size);
+        }
+        if (isDone != null && isDone) {
+            res.and(done);
+        } else if (isDone != null) {
+            res.andNot(done);
+        }
+        return res;
+    }
+}
@@ -1,80 +1,355 @@
 package duke.command;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
 
 import duke.exception.FileLoadingException;
 
 /**
  * Saves tasks into file
+ * How the tasks are laid out is up to the {@link StorageBackend} chosen with {@code -Dduke.storage}.
+ * Several Dukes may share the file, e.g. the CLI and the GUI. Each takes a lock on a file next to it,
+ * e.g. tasks.txt.lock, for as long as a command runs, and before the command brings its task list up to date
+ * with what the others saved. The lock file holds a count of the saves made to the data file, bumped under the
+ * lock by every save, so a Duke can tell that someone else saved however little the file changed.
  */
 public class Storage {
     private String path;
+    private final StorageBackend backend;
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private int lockDepth;
+    private volatile long knownGeneration = -1;
+    private long savedList = -1;
+    private long savedVersion = -1;
+    private WatchService watcher;
+    private Lock deferredLock;
+    private TaskList deferred;
 
     public Storage(String path) {
         this.path = path;
+        this.backend = StorageBackend.create(Paths.get(path));
     }
 
     /**
-     * Returns the loaded data file whenever Duke restarts.
+     * Returns the task list saved in the data file whenever Duke restarts.
      *
-     * @return array containing content of the existing data file.
+     * @return task list holding the saved tasks, empty if there are none or they cannot be read.
      */
-    public String[] load() {
-        String[] arr = new String[100];
+    public TaskList load() {
+        try (Lock lock = lock()) {
+            new File(this.path).getAbsoluteFile().getParentFile().mkdirs();
+            remember();
+            DukeEvents.StorageLoad event = new DukeEvents.StorageLoad();
+            event.begin();
+            TaskList tasks = backend.load();
+            recordLoad(event, tasks.getValidLen());
+            return tasks;
+        } catch (IOException | FileLoadingException e) {
+            System.out.println("An error occurred.");
+            return new TaskList();
+        }
+    }
+
+    /**
+     * Notes the count of saves to the data file, as of the read or write about to happen under the lock,
+     * so later saves by other Dukes can be told apart.
+     */
+    private void remember() throws IOException {
+        knownGeneration = generation();
+    }
+
+    /**
+     * Returns the count of saves made to the data file, as written in the lock file by the last save.
+     */
+    private long generation() throws IOException {
+        FileChannel channel = lockChannel();
+        if (channel == null) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        return channel.read(buffer, 0) < Long.BYTES ? 0 : buffer.getLong(0);
+    }
+
+    /**
+     * Counts one more save in the lock file. Call it while holding the lock, right before saving, so a Duke
+     * woken by the save already sees the new count.
+     */
+    private void bumpGeneration() throws IOException {
+        FileChannel channel = lockChannel();
+        if (channel == null) {
+            return;
+        }
+        channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, generation() + 1), 0);
+    }
+
+    /**
+     * Returns the channel of the lock file, opening it first if needed, or null if there is no data file.
+     */
+    private synchronized FileChannel lockChannel() throws IOException {
+        if (backend.file() == null) {
+            return null;
+        }
+        if (lockChannel == null || !lockChannel.isOpen()) {
+            Path lockFile = Paths.get(backend.file() + ".lock");
+            Files.createDirectories(lockFile.toAbsolutePath().getParent());
+            lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        return lockChannel;
+    }
+
+    /**
+     * Returns whether the file was saved by someone else since this Duke last read or wrote it.
+     *
+     * @return true if the count of saves in the lock file differs from what this Duke knows, or cannot be read.
+     */
+    public boolean isChanged() {
         try {
-            File myFile = new File(this.path);
-            myFile.getParentFile().mkdirs();
-            if (myFile.exists()) {
-                Scanner sc = new Scanner(myFile);
-                int pointer = 0;
-                while (sc.hasNext()) {
-                    arr[pointer] = sc.nextLine();
-                    pointer++;
-                }
-            }
+            return generation() != knownGeneration;
         } catch (IOException e) {
-            System.out.println("An error occurred.");
+            return true;
+        }
+    }
+
+    /**
+     * Applies what other Dukes saved since this one last read or wrote the file. Only the lines that differ are
+     * changed in the task list. Call it while holding the lock, so the file does not change while it is read.
+     *
+     * @param tasks task list loaded from this file.
+     * @return whether the task list changed.
+     * @throws FileLoadingException if the file cannot be read.
+     */
+    public boolean reload(TaskList tasks) throws FileLoadingException {
+        if (!isChanged()) {
+            return false;
+        }
+        try {
+            remember();
+            DukeEvents.StorageLoad event = new DukeEvents.StorageLoad();
+            event.begin();
+            List<String> lines = backend.lines();
+            recordLoad(event, lines.size());
+            boolean isMerged = tasks.merge(lines);
+            savedList = tasks.serial();
+            savedVersion = tasks.version();
+            return isMerged;
+        } catch (IOException e) {
+            throw new FileLoadingException(this.path);
+        }
+    }
+
+    private void recordLoad(DukeEvents.StorageLoad event, int tasks) {
+        if (event.shouldCommit()) {
+            event.backend = backend.getClass().getSimpleName();
+            event.path = this.path;
+            event.tasks = tasks;
+            event.bytes = backend.lastBytes();
+            event.commit();
+        }
+    }
+
+    /**
+     * Takes the lock shared with other Dukes using the same file, waiting for them to finish their command.
+     * Locks taken again by the same Duke while it holds the lock are nested.
+     *
+     * @return the lock, to be closed once the command is done.
+     * @throws FileLoadingException if the lock file cannot be opened.
+     */
+    public Lock lock() throws FileLoadingException {
+        if (lockDepth == 0 && backend.file() != null) {
+            try {
+                fileLock = lockChannel().lock();
+            } catch (IOException e) {
+                throw new FileLoadingException(this.path);
+            }
+        }
+        lockDepth++;
+        return new Lock();
+    }
+
+    /**
+     * Leaves saving the task list to a later {@link #overwrite(TaskList)} or {@link #flush()}, keeping the lock
+     * until then so no other Duke sees or changes the file in between. Lets a run of piped commands be saved
+     * once instead of after every command.
+     *
+     * @param tasks task list changed by the command.
+     * @throws FileLoadingException if the lock cannot be taken.
+     */
+    public void defer(TaskList tasks) throws FileLoadingException {
+        if (deferredLock == null) {
+            deferredLock = lock();
+        }
+        deferred = tasks;
+    }
+
+    /**
+     * Returns whether saving a task list was left to later.
+     *
+     * @return true if {@link #defer(TaskList)} was called since the last save.
+     */
+    public boolean isDeferred() {
+        return deferredLock != null;
+    }
+
+    /**
+     * Saves the task list left to later, if any, and releases the lock kept for it.
+     *
+     * @throws FileLoadingException if the file cannot be written.
+     */
+    public void flush() throws FileLoadingException {
+        if (deferred != null) {
+            overwrite(deferred);
         }
-        return arr;
     }
 
     /**
      * Overwrites the given data file with new information.
+     * Nothing is written if the task list has not changed since it was last read or written.
      *
      * @param tasks new task list to overwrite on the given file.
      * @write on given data file.
      */
     public void overwrite(TaskList tasks) throws FileLoadingException {
-        String[] arr = tasks.readTaskList();
-        File myFile = new File(this.path);
-        myFile.getParentFile().mkdirs();
-        try {
-            FileWriter myWriter = new FileWriter(myFile);
-            if (myFile.createNewFile()) {
-                for (int i = 0; i < arr.length; i++) {
-                    if (arr[i] == null) {
-                        break;
+        try (Lock lock = lock()) {
+            if (tasks.serial() == savedList && tasks.version() == savedVersion && !isChanged()) {
+                return;
+            }
+            new File(this.path).getAbsoluteFile().getParentFile().mkdirs();
+            DukeEvents.StorageFlush event = new DukeEvents.StorageFlush();
+            event.begin();
+            bumpGeneration();
+            backend.save(tasks);
+            if (event.shouldCommit()) {
+                event.backend = backend.getClass().getSimpleName();
+                event.path = this.path;
+                event.tasks = tasks.getValidLen();
+                event.bytes = backend.lastBytes();
+                event.commit();
+            }
+            remember();
+            savedList = tasks.serial();
+            savedVersion = tasks.version();
+        } catch (IOException e) {
+            throw new FileLoadingException(this.path);
+        } finally {
+            if (deferredLock != null) {
+                deferred = null;
+                deferredLock.close();
+                deferredLock = null;
+            }
+        }
+    }
+
+    /**
+     * Calls onChange on a background thread whenever someone else saves the file, until {@link #stopWatching()}.
+     *
+     * @param onChange called after the file changed; it should take the lock and {@link #reload(TaskList)}.
+     * @throws IOException if the folder of the file cannot be watched.
+     */
+    public synchronized void watch(Runnable onChange) throws IOException {
+        stopWatching();
+        if (backend.file() == null) {
+            return;
+        }
+        Path file = backend.file().toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        WatchService service = FileSystems.getDefault().newWatchService();
+        file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = service;
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    boolean isOurs = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        isOurs |= file.getFileName().equals(event.context());
                     }
-                    myWriter.write(arr[i].toString());
-                    myWriter.write("\n");
-                }
-                myWriter.close();
-            } else {
-                new FileWriter(this.path, false).close();
-                for (int i = 0; i < arr.length; i++) {
-                    if (arr[i] == null) {
-                        break;
+                    key.reset();
+                    if (isOurs && isChanged()) {
+                        onChange.run();
                     }
-                    myWriter.write(arr[i].toString());
-                    myWriter.write("\n");
                 }
-                myWriter.close();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
             }
+        }, "duke-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops calling back on changes to the file.
+     */
+    public synchronized void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
         } catch (IOException e) {
-            throw new FileLoadingException(this.path);
+            System.out.println("An error occurred.");
+        }
+        watcher = null;
+    }
+
+    /**
+     * Stops watching and releases the files held open, once the task list is no longer in memory.
+     */
+    public void close() {
+        stopWatching();
+        try {
+            flush();
+        } catch (FileLoadingException e) {
+            System.out.println(e.getMessage());
+        }
+        try {
+            backend.close();
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred.");
+        }
+    }
+
+    /**
+     * The lock on the data file held while a command runs.
+     */
+    public class Lock implements AutoCloseable {
+        private boolean isClosed;
+
+        private Lock() {}
+
+        @Override
+        public void close() {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            lockDepth--;
+            if (lockDepth == 0 && fileLock != null) {
+                try {
+                    fileLock.release();
+                } catch (IOException e) {
+                    System.out.println("An error occurred.");
+                }
+            }
         }
     }
 }
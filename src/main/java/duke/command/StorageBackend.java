@@ -0,0 +1,63 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Keeps the tasks of a task list between runs. {@link Storage} takes care of locking the data and reloading
+ * what other Dukes saved; a backend only decides how the tasks are laid out.
+ */
+interface StorageBackend {
+    /**
+     * Returns the backend selected by the {@code duke.storage} system property for the given data file:
+     * "memory" for {@link InMemoryBackend}, "pages" for {@link PageFileBackend}, "slab" for
+     * {@link SlabFileBackend}, anything else for {@link TextFileBackend}.
+     *
+     * @param file data file of the task list, e.g. ./data/tasks.txt
+     */
+    static StorageBackend create(Path file) {
+        String kind = System.getProperty("duke.storage", "text");
+        if ("memory".equalsIgnoreCase(kind)) {
+            return new InMemoryBackend(file);
+        } else if ("pages".equalsIgnoreCase(kind)) {
+            return new PageFileBackend(PageFileBackend.fileFor(file), new TextFileBackend(file));
+        } else if ("slab".equalsIgnoreCase(kind)) {
+            return new SlabFileBackend(SlabFileBackend.fileFor(file), new TextFileBackend(file));
+        }
+        return new TextFileBackend(file);
+    }
+
+    /**
+     * Returns the file the tasks are kept in, which is locked and watched, or null if they are not in a file.
+     */
+    Path file();
+
+    /**
+     * Returns the stored tasks as a task list.
+     */
+    TaskList load() throws IOException;
+
+    /**
+     * Returns the stored lines, in order, for bringing a loaded task list up to date.
+     */
+    List<String> lines() throws IOException;
+
+    /**
+     * Saves the task list, replacing what was stored.
+     */
+    void save(TaskList tasks) throws IOException;
+
+    /**
+     * Returns how many bytes the last load or save read from or wrote to the file, for profiling.
+     */
+    default long lastBytes() {
+        return 0;
+    }
+
+    /**
+     * Releases the files held open, if any.
+     */
+    default void close() throws IOException {
+    }
+}
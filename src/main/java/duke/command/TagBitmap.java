@@ -0,0 +1,382 @@
+package duke.command;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * A set of task ids kept as a compressed bitmap, laid out like a Roaring bitmap. Ids are split into chunks of 65536
+ * by their high bits. A chunk keeps a sorted array of the low 16 bits while it holds at most 4096 ids, and a bitmap
+ * of 1024 words once it holds more. A tag on a few tasks costs two bytes per task, a tag on most tasks one bit per
+ * id, and AND, OR and AND NOT go a chunk at a time, a word at a time within bitmap chunks.
+ */
+class TagBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private int[] keys = new int[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int size;
+
+    /**
+     * Adds the id to the set.
+     *
+     * @param id task id, less than 2^47.
+     */
+    void add(long id) {
+        int key = (int) (id >>> 16);
+        int i = find(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new Chunk(new char[4], null, 0));
+        }
+        chunks[i].add((char) id);
+    }
+
+    /**
+     * Removes the id from the set, if it is there.
+     *
+     * @param id task id.
+     */
+    void remove(long id) {
+        int i = find((int) (id >>> 16));
+        if (i < 0) {
+            return;
+        }
+        chunks[i].remove((char) id);
+        if (chunks[i].count == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(chunks, i + 1, chunks, i, size - i - 1);
+            size--;
+            chunks[size] = null;
+        }
+    }
+
+    boolean contains(long id) {
+        int i = find((int) (id >>> 16));
+        return i >= 0 && chunks[i].contains((char) id);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of ids in the set.
+     *
+     * @return number of ids.
+     */
+    int cardinality() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += chunks[i].count;
+        }
+        return count;
+    }
+
+    /**
+     * Calls the visitor with each id in increasing order, until it returns false.
+     *
+     * @param visitor called with each id; returns whether to go on.
+     */
+    void forEach(LongPredicate visitor) {
+        for (int i = 0; i < size; i++) {
+            if (!chunks[i].forEach((long) keys[i] << 16, visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the ids in both sets.
+     */
+    static TagBitmap and(TagBitmap a, TagBitmap b) {
+        TagBitmap res = new TagBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                res.append(a.keys[i], a.chunks[i].and(b.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns the ids in either set.
+     */
+    static TagBitmap or(TagBitmap a, TagBitmap b) {
+        TagBitmap res = new TagBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || i < a.size && a.keys[i] < b.keys[j]) {
+                res.append(a.keys[i], a.chunks[i].copy());
+                i++;
+            } else if (i >= a.size || a.keys[i] > b.keys[j]) {
+                res.append(b.keys[j], b.chunks[j].copy());
+                j++;
+            } else {
+                res.append(a.keys[i], a.chunks[i].or(b.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns the ids in a that are not in b.
+     */
+    static TagBitmap andNot(TagBitmap a, TagBitmap b) {
+        TagBitmap res = new TagBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            boolean isShared = j < b.size && b.keys[j] == a.keys[i];
+            res.append(a.keys[i], isShared ? a.chunks[i].andNot(b.chunks[j]) : a.chunks[i].copy());
+        }
+        return res;
+    }
+
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int i, int key, Chunk chunk) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(chunks, i, chunks, i + 1, size - i);
+        keys[i] = key;
+        chunks[i] = chunk;
+        size++;
+    }
+
+    /**
+     * Adds a chunk after every chunk already in the set, skipping empty results of an operation.
+     */
+    private void append(int key, Chunk chunk) {
+        if (chunk != null) {
+            insert(size, key, chunk);
+        }
+    }
+
+    /**
+     * The ids of a set that share their high bits, either as a sorted array or as a bitmap.
+     */
+    private static final class Chunk {
+        private char[] values;
+        private long[] words;
+        private int count;
+
+        Chunk(char[] values, long[] words, int count) {
+            this.values = values;
+            this.words = words;
+            this.count = count;
+        }
+
+        /**
+         * Returns the chunk for the given bitmap, as an array if it is small enough, or null if it is empty.
+         */
+        static Chunk of(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            if (count == 0) {
+                return null;
+            } else if (count > ARRAY_MAX) {
+                return new Chunk(null, words, count);
+            }
+            return new Chunk(toValues(words, count), null, count);
+        }
+
+        private static char[] toValues(long[] words, int count) {
+            char[] values = new char[count];
+            int k = 0;
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    values[k++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return values;
+        }
+
+        /**
+         * Returns the ids of the chunk as a new bitmap.
+         */
+        private long[] toWords() {
+            if (words != null) {
+                return words.clone();
+            }
+            long[] res = new long[WORDS];
+            for (int k = 0; k < count; k++) {
+                res[values[k] >>> 6] |= 1L << values[k];
+            }
+            return res;
+        }
+
+        void add(char low) {
+            if (words != null) {
+                if ((words[low >>> 6] & 1L << low) == 0) {
+                    words[low >>> 6] |= 1L << low;
+                    count++;
+                }
+                return;
+            }
+            int k = count > 0 && values[count - 1] < low ? -count - 1 : Arrays.binarySearch(values, 0, count, low);
+            if (k >= 0) {
+                return;
+            }
+            if (count == ARRAY_MAX) {
+                words = toWords();
+                values = null;
+                add(low);
+                return;
+            }
+            k = -k - 1;
+            if (count == values.length) {
+                values = Arrays.copyOf(values, Math.min(count * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, k, values, k + 1, count - k);
+            values[k] = low;
+            count++;
+        }
+
+        void remove(char low) {
+            if (words != null) {
+                if ((words[low >>> 6] & 1L << low) != 0) {
+                    words[low >>> 6] &= ~(1L << low);
+                    count--;
+                    if (count <= ARRAY_MAX) {
+                        values = toValues(words, count);
+                        words = null;
+                    }
+                }
+                return;
+            }
+            int k = Arrays.binarySearch(values, 0, count, low);
+            if (k >= 0) {
+                System.arraycopy(values, k + 1, values, k, count - k - 1);
+                count--;
+            }
+        }
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & 1L << low) != 0;
+            }
+            return Arrays.binarySearch(values, 0, count, low) >= 0;
+        }
+
+        boolean forEach(long base, LongPredicate visitor) {
+            if (words == null) {
+                for (int k = 0; k < count; k++) {
+                    if (!visitor.test(base | values[k])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    if (!visitor.test(base | w << 6 | Long.numberOfTrailingZeros(word))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        Chunk copy() {
+            return words != null
+                    ? new Chunk(null, words.clone(), count)
+                    : new Chunk(Arrays.copyOf(values, count), null, count);
+        }
+
+        Chunk and(Chunk other) {
+            if (words != null && other.words != null) {
+                long[] res = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    res[w] = words[w] & other.words[w];
+                }
+                return of(res);
+            }
+            Chunk small = words == null ? this : other;
+            Chunk large = small == this ? other : this;
+            char[] res = new char[small.count];
+            int n = 0;
+            for (int k = 0; k < small.count; k++) {
+                if (large.contains(small.values[k])) {
+                    res[n++] = small.values[k];
+                }
+            }
+            return n == 0 ? null : new Chunk(res, null, n);
+        }
+
+        Chunk or(Chunk other) {
+            if (words == null && other.words == null && count + other.count <= ARRAY_MAX) {
+                char[] res = new char[count + other.count];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < count || j < other.count) {
+                    if (j >= other.count || i < count && values[i] < other.values[j]) {
+                        res[n++] = values[i++];
+                    } else if (i >= count || values[i] > other.values[j]) {
+                        res[n++] = other.values[j++];
+                    } else {
+                        res[n++] = values[i++];
+                        j++;
+                    }
+                }
+                return new Chunk(res, null, n);
+            }
+            long[] res = toWords();
+            if (other.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    res[w] |= other.words[w];
+                }
+            } else {
+                for (int k = 0; k < other.count; k++) {
+                    res[other.values[k] >>> 6] |= 1L << other.values[k];
+                }
+            }
+            return of(res);
+        }
+
+        Chunk andNot(Chunk other) {
+            if (words == null) {
+                char[] res = new char[count];
+                int n = 0;
+                for (int k = 0; k < count; k++) {
+                    if (!other.contains(values[k])) {
+                        res[n++] = values[k];
+                    }
+                }
+                return n == 0 ? null : new Chunk(res, null, n);
+            }
+            long[] res = words.clone();
+            if (other.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    res[w] &= ~other.words[w];
+                }
+            } else {
+                for (int k = 0; k < other.count; k++) {
+                    res[other.values[k] >>> 6] &= ~(1L << other.values[k]);
+                }
+            }
+            return of(res);
+        }
+    }
+}
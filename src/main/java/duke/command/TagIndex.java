@@ -0,0 +1,70 @@
+package duke.command;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import duke.task.Task;
+
+/**
+ * Keeps a {@link TagBitmap} of task ids for every tag in the task list, and one of every task for NOT queries,
+ * updated on every change to the task list like the sorted views. Bitmaps hold ids rather than positions, so
+ * deleting a task clears one bit instead of shifting every later task down.
+ */
+class TagIndex {
+    private final Map<String, TagBitmap> tags = new HashMap<>();
+    private final TagBitmap all = new TagBitmap();
+
+    /**
+     * Adds the task with the given id under each of its tags.
+     *
+     * @param id id of the task in the task list.
+     * @param line stored task line.
+     */
+    void add(long id, String line) {
+        all.add(id);
+        for (String tag : Task.tagsOf(line)) {
+            tags.computeIfAbsent(tag, t -> new TagBitmap()).add(id);
+        }
+    }
+
+    /**
+     * Removes the task with the given id from under each of its tags.
+     *
+     * @param id id of the task in the task list.
+     * @param line stored task line, for its tags.
+     */
+    void remove(long id, String line) {
+        all.remove(id);
+        for (String tag : Task.tagsOf(line)) {
+            TagBitmap ids = tags.get(tag);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    tags.remove(tag);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the tasks with the given tag. The bitmap must not be changed.
+     *
+     * @param tag tag in lower case, without the #.
+     * @return ids of the tagged tasks, empty if there are none.
+     */
+    TagBitmap get(String tag) {
+        TagBitmap ids = tags.get(tag);
+        return ids == null ? new TagBitmap() : ids;
+    }
+
+    /**
+     * Returns the ids of every task in the list. The bitmap must not be changed.
+     */
+    TagBitmap all() {
+        return all;
+    }
+
+    int tagCount() {
+        return tags.size();
+    }
+}
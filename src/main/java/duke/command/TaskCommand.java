@@ -0,0 +1,90 @@
+package duke.command;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Priority;
+import duke.task.Recurrence;
+import duke.task.Task;
+import duke.task.TaskType;
+import duke.task.Todo;
+
+/**
+ * Represents a parsed command that adds a task, with its flags already turned into dates.
+ */
+public class TaskCommand {
+    private final TaskType type;
+    private final String detail;
+    private final LocalDate by;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Recurrence recurrence;
+    private Priority priority;
+    private Duration effort;
+
+    /**
+     * Initializes a new TaskCommand object
+     * @param type type of task to add
+     * @param detail detail of the task, ending with a space as the other commands store it
+     * @param by day of a deadline, null for other tasks
+     * @param from start of an event, null for other tasks
+     * @param to end of an event, null for other tasks
+     * @param recurrence how the task repeats, null if it does not
+     */
+    TaskCommand(TaskType type, String detail, LocalDate by, LocalDateTime from, LocalDateTime to,
+            Recurrence recurrence) {
+        this.type = type;
+        this.detail = detail;
+        this.by = by;
+        this.from = from;
+        this.to = to;
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Sets how urgent and how big the task is, as given by /priority and /effort.
+     *
+     * @param priority priority of the task, null if none was given.
+     * @param effort estimated effort, null if none was given.
+     * @return this command.
+     */
+    TaskCommand plan(Priority priority, Duration effort) {
+        this.priority = priority;
+        this.effort = effort;
+        return this;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Returns the task this command adds.
+     *
+     * @return new, undone task.
+     */
+    public Task toTask() {
+        Task task;
+        switch (type) {
+        case DEADLINE:
+            task = new Deadline("deadline", detail, false, by, recurrence);
+            break;
+        case EVENT:
+            task = new Event("event", detail, false, from, to, recurrence);
+            break;
+        default:
+            task = new Todo("todo", detail);
+            break;
+        }
+        task.setPriority(priority);
+        task.setEffort(effort);
+        return task;
+    }
+}
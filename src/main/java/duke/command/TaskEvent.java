@@ -0,0 +1,76 @@
+package duke.command;
+
+/**
+ * Represents one change to a task list, published to subscribers in batches.
+ */
+public class TaskEvent {
+    /**
+     * What happened to the task
+     */
+    public enum Kind {
+        /** A new task was added. */
+        ADDED,
+        /** A task was taken out of the list, by delete, archive or undo. */
+        REMOVED,
+        /** A task was marked or unmarked. */
+        UPDATED,
+        /** Every task was taken out at once; the event carries no task. */
+        CLEARED,
+        /** A task was brought back by undo. */
+        RESTORED
+    }
+
+    private final Kind kind;
+    private final int index;
+    private final long id;
+    private final String line;
+    private final String oldLine;
+
+    TaskEvent(Kind kind, int index, long id, String line, String oldLine) {
+        this.kind = kind;
+        this.index = index;
+        this.id = id;
+        this.line = line;
+        this.oldLine = oldLine;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the position of the task when the change happened.
+     *
+     * @return index in the task list, or -1 for {@link Kind#CLEARED}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the stored line of the task after the change.
+     *
+     * @return line of an added, updated or restored task, otherwise null.
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the stored line of the task before the change.
+     *
+     * @return line of a removed or updated task, otherwise null.
+     */
+    public String getOldLine() {
+        return oldLine;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + index + " " + (line != null ? line : oldLine);
+    }
+}
@@ -1,37 +1,231 @@
 package duke.command;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
 
 import duke.exception.EmptyTaskListException;
 import duke.exception.InvalidIndexException;
 import duke.task.Task;
+import duke.task.TaskType;
 
 /**
  * Handles data and formats into tasklist
  */
 public class TaskList {
-    private String[] arr;
+    private static final DateTimeFormatter occurrenceFormat = DateTimeFormatter.ofPattern("EEE, MMM d yyyy");
+    private static long nextId = 0;
+    private static final AtomicLong nextSerial = new AtomicLong();
+    private final long serial = nextSerial.getAndIncrement();
+    private TaskStore tasks;
+    private SortedViews views;
+    private TagIndex tagIndex;
+    private UrgencyHeap urgency;
+    private StatusIndex status;
+    private long version;
+    private SubmissionPublisher<List<TaskEvent>> publisher;
+    private List<TaskEvent> pending;
 
+    /**
+     * Initializes an empty TaskList object
+     */
     public TaskList() {
-        arr = new String[100];
+        this(TaskStore.create());
+    }
+
+    /**
+     * Initializes a task list with empty indexes over the given store. A store that keeps dates answers date
+     * queries itself, so no sorted views are kept for it.
+     */
+    private TaskList(TaskStore tasks) {
+        this.tasks = tasks;
+        views = tasks.keepsDates() ? null : new SortedViews();
+        tagIndex = new TagIndex();
+        urgency = new UrgencyHeap();
+        status = new StatusIndex();
     }
 
     /**
      * Initializes a new TaskList object
-     * @param arr
+     * @param arr stored task lines, ending at the first null
      */
     public TaskList(String[] arr) {
-        this.arr = arr;
+        this();
+        for (int i = 0; i < arr.length && arr[i] != null; i++) {
+            tasks.add(arr[i], nextId);
+            if (views != null) {
+                views.add(nextId, arr[i]);
+            }
+            tagIndex.add(nextId, arr[i]);
+            status.add(tasks.type(i), tasks.isDone(i));
+            if (!tasks.isDone(i)) {
+                urgency.add(nextId, arr[i]);
+            }
+            nextId++;
+        }
+    }
+
+    /**
+     * Returns a task list of stored tasks that keep the ids they were saved with.
+     *
+     * @param ids ids of the tasks, increasing.
+     * @param lines stored lines of the tasks, in the same order.
+     * @return the task list.
+     */
+    static TaskList restore(long[] ids, String[] lines) {
+        TaskList list = new TaskList();
+        for (int i = 0; i < lines.length; i++) {
+            list.tasks.add(lines[i], ids[i]);
+            if (list.views != null) {
+                list.views.add(ids[i], lines[i]);
+            }
+            list.tagIndex.add(ids[i], lines[i]);
+            list.status.add(list.tasks.type(i), list.tasks.isDone(i));
+            if (!list.tasks.isDone(i)) {
+                list.urgency.add(ids[i], lines[i]);
+            }
+        }
+        if (ids.length > 0) {
+            nextId = Math.max(nextId, ids[ids.length - 1] + 1);
+        }
+        return list;
+    }
+
+    /**
+     * Returns a task list over the tasks already in a store, e.g. one mapped from a file, keeping their ids.
+     *
+     * @param store tasks of the list.
+     * @return the task list.
+     */
+    static TaskList over(TaskStore store) {
+        TaskList list = new TaskList(store);
+        for (int i = 0; i < store.size(); i++) {
+            long id = store.id(i);
+            String line = store.get(i);
+            if (list.views != null) {
+                list.views.add(id, line);
+            }
+            list.tagIndex.add(id, line);
+            list.status.add(store.type(i), store.isDone(i));
+            if (!store.isDone(i)) {
+                list.urgency.add(id, line);
+            }
+        }
+        if (store.size() > 0) {
+            nextId = Math.max(nextId, store.id(store.size() - 1) + 1);
+        }
+        return list;
+    }
+
+    /**
+     * Initializes a task list over the given tasks, keeping their ids, to be put in place by
+     * {@link #overwrite(TaskList)}. It carries no sorted views, tag index or urgency heap.
+     */
+    private TaskList(TaskStore tasks, StatusIndex status) {
+        this.tasks = tasks;
+        this.status = status;
+    }
+
+    /**
+     * Applies a change kept for undo and returns the change that takes it back, so undo can itself be undone.
+     * Only the task the change holds is touched, unless it holds every task.
+     *
+     * @param change change recorded by the last command, or by the last undo.
+     * @return change taking this one back.
+     */
+    Change apply(Change change) {
+        int i = tasks.indexOf(change.id);
+        switch (change.kind) {
+        case INSERT:
+            insertAt(-(i + 1), change.line, change.id);
+            emit(TaskEvent.Kind.RESTORED, -(i + 1), change.id, change.line, -1);
+            version++;
+            return Change.remove(change.id);
+        case REMOVE:
+            String line = tasks.get(i);
+            emit(TaskEvent.Kind.REMOVED, i, change.id, null, i);
+            removeAt(i);
+            version++;
+            return Change.insert(change.id, line);
+        case SET_DONE:
+            boolean wasDone = tasks.isDone(i);
+            String before = publisher == null ? null : tasks.get(i);
+            setDoneAt(i, change.isDone);
+            version++;
+            emitUpdated(i, before, tasks.get(i));
+            return Change.setDone(change.id, wasDone);
+        default:
+            Change back = Change.replace(tasks, status);
+            overwrite(new TaskList(change.tasks, change.status));
+            return back;
+        }
+    }
+
+    /**
+     * Returns a change putting back the tasks as they are now, for when a command that swaps every task at once,
+     * such as archive, has to be rolled back.
+     *
+     * @return change restoring the current tasks.
+     */
+    Change restorePoint() {
+        return Change.replace(tasks, status);
+    }
+
+    /**
+     * Keeps the change for undo, in place of the one kept by the command before.
+     */
+    private static void keep(Change change) {
+        DukeEvents.UndoSnapshot event = new DukeEvents.UndoSnapshot();
+        event.begin();
+        Parser.updateLastChange(change);
+        if (event.shouldCommit()) {
+            event.change = change.kind.name();
+            event.tasks = change.size();
+            event.commit();
+        }
     }
 
     /**
      * Returns the tasklist in array
+     * The lines are rendered on demand, changing the array does not change the task list.
      * @return the tasklist in array
-     * @throws IOException if array does not exist
      */
     public String[] readTaskList() {
-        return this.arr;
+        String[] arr = new String[tasks.size()];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = tasks.get(i);
+        }
+        return arr;
+    }
+
+    /**
+     * Returns the stored line of the task at the given index.
+     *
+     * @param i index of the task.
+     * @return line such as "[T][ ] borrow book".
+     */
+    String get(int i) {
+        return tasks.get(i);
+    }
+
+    /**
+     * Returns the id of the task at the given index, which increases along the list.
+     *
+     * @param i index of the task.
+     * @return id of the task.
+     */
+    long id(int i) {
+        return tasks.id(i);
     }
 
     /**
@@ -39,7 +233,234 @@ public class TaskList {
      * @param newTaskList
      */
     public void overwrite(TaskList newTaskList) {
-        this.arr = newTaskList.readTaskList();
+        if (tagIndex != null || publisher != null) {
+            updateViews(newTaskList);
+        }
+        this.tasks = newTaskList.tasks;
+        this.status = newTaskList.status;
+        version++;
+    }
+
+    /**
+     * Brings the task list in line with the lines read back from its data file after another Duke changed it.
+     * Only the lines that differ are replaced. Tasks before and after them keep their ids, and so does a task
+     * that was only marked or unmarked, so the sorted views and subscribers only see the change itself.
+     * Ids must keep increasing along the list, so inserted tasks take ids no task has between those of the tasks
+     * around them, e.g. those a deleted task left free; only if there are too few do the tasks after them get
+     * new ids too.
+     * The change cannot be undone, and the command before it can no longer be undone either.
+     *
+     * @param lines stored lines now in the data file.
+     * @return whether the task list changed.
+     */
+    boolean merge(List<String> lines) {
+        int n = tasks.size();
+        int m = lines.size();
+        boolean isChanged = n != m;
+        for (int i = 0; i < n && !isChanged; i++) {
+            isChanged = !tasks.get(i).equals(lines.get(i));
+        }
+        if (!isChanged) {
+            return false;
+        }
+        int prefix = 0;
+        while (prefix < n && prefix < m && isSameTask(tasks.get(prefix), lines.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && isSameTask(tasks.get(n - 1 - suffix), lines.get(m - 1 - suffix))) {
+            suffix++;
+        }
+        int removedEnd = n - suffix;
+        int insertedEnd = m - suffix;
+        long low = prefix > 0 ? tasks.id(prefix - 1) : -1;
+        boolean isRenumbered = suffix > 0
+                && tasks.id(removedEnd) - low - 1 - (removedEnd - prefix) < insertedEnd - prefix;
+        long free = low + 1;
+        int old = prefix;
+        TaskStore merged = tasks.emptyCopy();
+        StatusIndex mergedStatus = new StatusIndex();
+        for (int i = 0; i < m; i++) {
+            long id;
+            if (i < prefix) {
+                id = tasks.id(i);
+            } else if (i >= insertedEnd && !isRenumbered) {
+                id = tasks.id(i - m + n);
+            } else if (i < insertedEnd && suffix > 0 && !isRenumbered) {
+                while (old < removedEnd && tasks.id(old) <= free) {
+                    if (tasks.id(old) == free) {
+                        free++;
+                    }
+                    old++;
+                }
+                id = free++;
+            } else {
+                id = nextId++;
+            }
+            merged.add(lines.get(i), id);
+            mergedStatus.add(merged.type(i), merged.isDone(i));
+        }
+        overwrite(new TaskList(merged, mergedStatus));
+        Parser.updateLastCommand("reload");
+        return true;
+    }
+
+    /**
+     * Returns whether two stored lines differ at most in their done mark, e.g. "[T][ ] a" and "[T][X] a".
+     */
+    private static boolean isSameTask(String a, String b) {
+        return a.equals(b) || a.length() == b.length() && a.length() > 5 && a.regionMatches(0, b, 0, 4)
+                && a.regionMatches(5, b, 5, a.length() - 5);
+    }
+
+    /**
+     * Brings the sorted views, the tag index and the urgency heap in line with the given task list, and tells
+     * subscribers what changed.
+     * Ids increase along the list, so walking both lists together finds the few tasks that differ
+     * and only those are touched in the views. Events are numbered as if applied one after another.
+     */
+    private void updateViews(TaskList newTaskList) {
+        TaskStore newTasks = newTaskList.tasks;
+        int i = 0;
+        int j = 0;
+        while (i < tasks.size() || j < newTasks.size()) {
+            boolean hasOld = i < tasks.size();
+            boolean hasNew = j < newTasks.size();
+            if (hasOld && (!hasNew || tasks.id(i) < newTasks.id(j))) {
+                if (tagIndex != null) {
+                    if (views != null) {
+                        views.remove(tasks.id(i));
+                    }
+                    tagIndex.remove(tasks.id(i), tasks.get(i));
+                    urgency.remove(tasks.id(i));
+                }
+                emit(TaskEvent.Kind.REMOVED, j, tasks.id(i), null, i);
+                i++;
+            } else if (hasNew && (!hasOld || newTasks.id(j) < tasks.id(i))) {
+                if (tagIndex != null) {
+                    if (views != null) {
+                        views.add(newTasks.id(j), newTasks.get(j));
+                    }
+                    tagIndex.add(newTasks.id(j), newTasks.get(j));
+                    if (!newTasks.isDone(j)) {
+                        urgency.add(newTasks.id(j), newTasks.get(j));
+                    }
+                }
+                if (publisher != null) {
+                    emit(TaskEvent.Kind.RESTORED, j, newTasks.id(j), newTasks.get(j), -1);
+                }
+                j++;
+            } else {
+                if (tasks.isDone(i) != newTasks.isDone(j)) {
+                    if (tagIndex != null && newTasks.isDone(j)) {
+                        urgency.remove(newTasks.id(j));
+                    } else if (tagIndex != null) {
+                        urgency.add(newTasks.id(j), newTasks.get(j));
+                    }
+                    emit(TaskEvent.Kind.UPDATED, j, newTasks.id(j), newTasks.get(j), i);
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Subscribes to the changes of this task list. Changes are delivered in batches, one per command,
+     * once {@link #publishChanges()} is called, on a separate thread and in order.
+     * A slow subscriber holds up the next batch once its buffer is full.
+     *
+     * @param subscriber subscriber receiving batches of changes.
+     */
+    public synchronized void subscribe(Flow.Subscriber<? super List<TaskEvent>> subscriber) {
+        if (publisher == null) {
+            publisher = new SubmissionPublisher<>();
+            pending = new ArrayList<>();
+        }
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Sends the changes made since the last call to subscribers, as one batch.
+     */
+    public synchronized void publishChanges() {
+        if (publisher != null && !pending.isEmpty()) {
+            publisher.submit(pending);
+            pending = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Records a change for subscribers, if there are any.
+     *
+     * @param oldIndex index of the task in the current store, read for its old line, or -1 if there was none.
+     */
+    private void emit(TaskEvent.Kind kind, int index, long id, String line, int oldIndex) {
+        if (publisher != null) {
+            pending.add(new TaskEvent(kind, index, id, line, oldIndex < 0 ? null : tasks.get(oldIndex)));
+        }
+    }
+
+    /**
+     * Returns a number that changes whenever the task list changes, so results worked out from it can be reused
+     * until it does.
+     *
+     * @return version of the task list.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns a number telling this task list apart from every other one made while Duke runs.
+     *
+     * @return serial number of the task list.
+     */
+    long serial() {
+        return serial;
+    }
+
+    /**
+     * Returns whether the stored line of the task at the given index contains the keyword.
+     *
+     * @param i index of the task.
+     * @param keyword UTF-8 bytes of the keyword.
+     * @return true if the line contains the keyword.
+     */
+    boolean contains(int i, byte[] keyword) {
+        return tasks.contains(i, keyword);
+    }
+
+    /**
+     * Returns the time the task at the given index goes by in date filters and sorting by date.
+     * It is read from the store if the store keeps dates, and otherwise decoded from the line.
+     *
+     * @param i index of the task.
+     * @param line stored line of the task, or null to render it here if needed.
+     * @return start of the day of a deadline, start of an event, or null for other tasks.
+     */
+    LocalDateTime startOf(int i, String line) {
+        return line == null || tasks.keepsDates() ? tasks.start(i) : Query.timeOf(Task.fromString(line));
+    }
+
+    /**
+     * Returns the store holding the tasks, for backends that save it as it is laid out in memory.
+     *
+     * @return store of the task list.
+     */
+    TaskStore store() {
+        return tasks;
+    }
+
+    /**
+     * Returns the position of the task with the given id.
+     *
+     * @param id id of the task.
+     * @return index in the task list, or a negative number if there is no such task.
+     */
+    int positionOf(long id) {
+        return tasks.indexOf(id);
     }
 
     /**
@@ -56,29 +477,118 @@ public class TaskList {
      * @return task one-by-one.
      */
     public String list() {
-        String res = "";
-        for (int j = 0; j < arr.length; j++) {
-            if (arr[j] == null) {
-                break;
-            }
-            res += String.format("%d.%s", j + 1, arr[j]);
-            res += "\n";
+        StringBuilder res = new StringBuilder();
+        for (int j = 0; j < tasks.size(); j++) {
+            res.append(String.format("%d.%s", j + 1, tasks.get(j)));
+            res.append("\n");
         }
         return ("Here are the tasks in the EVIL list:" + "\n" + res);
     }
 
     /**
-     * Returns the real length of the array.
-     * Maximum index in which array at such index is not null.
+     * Lists tasks matching the given query, keeping their numbers in the full task list.
+     *
+     * @param query compiled query.
+     * @return matching tasks one-by-one.
+     */
+    public String list(Query query) {
+        BitSet candidates = status.matching(query.typeFilter(), query.doneFilter());
+        if (query.hasTagFilter()) {
+            candidates.and(positionsOf(query.matchTags(tagIndex)));
+        }
+        List<Integer> indexes = query.usesDateView() && views != null
+                ? query.run(this, views, candidates)
+                : query.run(this, candidates);
+        if (indexes.isEmpty()) {
+            return "Sorry boss! Kyle cannot find any tasks recorded!";
+        }
+        StringBuilder res = new StringBuilder();
+        for (int i : indexes) {
+            res.append(String.format("%d.%s", i + 1, tasks.get(i)));
+            res.append("\n");
+        }
+        return ("Here are the matching tasks in the EVIL list:" + "\n" + res);
+    }
+
+    /**
+     * Lists the most urgent open tasks, keeping their numbers in the full task list.
+     *
+     * @param count most tasks to list.
+     * @return the tasks one-by-one, most urgent first.
+     */
+    public String next(int count) {
+        List<Long> ids = urgency.first(count);
+        if (ids.isEmpty()) {
+            return "WOOF! Nothing left to do, Boss! Every EVIL task is done!";
+        }
+        StringBuilder res = new StringBuilder();
+        for (long id : ids) {
+            int i = tasks.indexOf(id);
+            res.append(String.format("%d.%s", i + 1, tasks.get(i)));
+            res.append("\n");
+        }
+        return ("Here are the most urgent EVIL tasks:" + "\n" + res);
+    }
+
+    /**
+     * Returns the positions of the tasks with the given ids. Ids increase along the list, so the positions are found
+     * in order.
+     */
+    private BitSet positionsOf(TagBitmap ids) {
+        BitSet res = new BitSet(tasks.size());
+        ids.forEach(id -> {
+            int position = tasks.indexOf(id);
+            if (position >= 0) {
+                res.set(position);
+            }
+            return true;
+        });
+        return res;
+    }
+
+    /**
+     * Returns the number of tasks in the task list.
      *
-     * @return the first null index.
+     * @return number of tasks.
      */
     public int getValidLen() {
-        int len = 0;
-        while (arr[len] != null) {
-            len++;
+        return tasks.size();
+    }
+
+    /**
+     * Returns a one-line summary such as "42 tasks, 17 done, 5 overdue".
+     * Counts come straight from the status index; overdue deadlines are read off the front of the
+     * deadline view, so only deadlines already past are looked at. A store that keeps dates is scanned instead,
+     * without decoding a line.
+     *
+     * @param today day before which open deadlines count as overdue.
+     * @return summary of the task list.
+     */
+    public String summary(LocalDate today) {
+        int overdue = 0;
+        if (views == null) {
+            LocalDateTime start = today.atStartOfDay();
+            for (int i = 0; i < tasks.size(); i++) {
+                LocalDateTime due = tasks.type(i) == TaskType.DEADLINE && !tasks.isDone(i) ? tasks.start(i) : null;
+                if (due != null && due.isBefore(start)) {
+                    overdue++;
+                }
+            }
+        } else {
+            Iterator<SortedViews.Entry> deadlines = views.byDate('D', null);
+            while (deadlines.hasNext()) {
+                SortedViews.Entry entry = deadlines.next();
+                if (!entry.key.toLocalDate().isBefore(today)) {
+                    break;
+                }
+                if (!tasks.isDone(positionOf(entry.id))) {
+                    overdue++;
+                }
+            }
         }
-        return len;
+        return String.format("%d tasks, %d done, %d overdue (%d todos, %d deadlines, %d events)",
+                status.size(), status.doneCount(), overdue, status.count(TaskType.TODO),
+                status.count(TaskType.DEADLINE), status.count(TaskType.EVENT));
     }
 
     /**
@@ -89,19 +599,17 @@ public class TaskList {
      * @return new task list with task marked.
      */
     public String mark(int num) throws IOException, InvalidIndexException {
-        try {
-            if (arr[num] != null) {
-                Parser.updateLastTaskList(new TaskList(Arrays.copyOf(arr, 100)));
-                String original = arr[num];
-                arr[num] = new Task(String.valueOf(original.charAt(1)),
-                        original.substring(7), true).toString();
-                Parser.updateLastCommandDetail(arr[num]);
-                return ("OK, I've marked this EVIL task as done:" + "\n" + arr[num]);
-            }
-        } catch (IndexOutOfBoundsException e) {
+        if (!checkValidIndex(num)) {
             throw new InvalidIndexException();
         }
-        return "";
+        keep(Change.setDone(tasks.id(num), tasks.isDone(num)));
+        String before = publisher == null ? null : tasks.get(num);
+        setDoneAt(num, true);
+        version++;
+        String marked = tasks.get(num);
+        emitUpdated(num, before, marked);
+        Parser.updateLastCommandDetail(marked);
+        return ("OK, I've marked this EVIL task as done:" + "\n" + marked);
     }
 
     /**
@@ -113,17 +621,65 @@ public class TaskList {
      * @throw InvalidIndexException if array at specific index is null
      */
     public String unmark(int num) throws IOException, InvalidIndexException {
-        try {
-            String original = arr[num];
-            Parser.updateLastTaskList(new TaskList(Arrays.copyOf(arr, 100)));
-            Task newTask = new Task(String.valueOf(original.charAt(1)),
-                    original.substring(7), false);
-            arr[num] = newTask.toString();
-            Parser.updateLastCommandDetail(arr[num]);
-            return ("OK, I've marked this EVIL task as not done yet:" + "\n" + arr[num]);
-        } catch (IndexOutOfBoundsException e) {
+        if (!checkValidIndex(num)) {
             throw new InvalidIndexException();
         }
+        keep(Change.setDone(tasks.id(num), tasks.isDone(num)));
+        String before = publisher == null ? null : tasks.get(num);
+        setDoneAt(num, false);
+        version++;
+        String unmarked = tasks.get(num);
+        emitUpdated(num, before, unmarked);
+        Parser.updateLastCommandDetail(unmarked);
+        return ("OK, I've marked this EVIL task as not done yet:" + "\n" + unmarked);
+    }
+
+    /**
+     * Marks or unmarks the task at the given index, keeping the status index and urgency heap in step.
+     */
+    private void setDoneAt(int i, boolean isDone) {
+        tasks.setDone(i, isDone);
+        status.setDone(i, tasks.isDone(i));
+        if (tasks.isDone(i)) {
+            urgency.remove(tasks.id(i));
+        } else {
+            urgency.add(tasks.id(i), tasks.get(i));
+        }
+    }
+
+    /**
+     * Inserts a task at the given index, keeping every index of the task list in step.
+     */
+    private void insertAt(int i, String line, long id) {
+        tasks.insert(i, line, id);
+        if (views != null) {
+            views.add(id, line);
+        }
+        tagIndex.add(id, line);
+        if (!tasks.isDone(i)) {
+            urgency.add(id, line);
+        }
+        status.insert(i, tasks.type(i), tasks.isDone(i));
+    }
+
+    /**
+     * Removes the task at the given index, keeping every index of the task list in step.
+     */
+    private void removeAt(int i) {
+        long id = tasks.id(i);
+        if (views != null) {
+            views.remove(id);
+        }
+        tagIndex.remove(id, tasks.get(i));
+        urgency.remove(id);
+        tasks.remove(i);
+        status.remove(i);
+    }
+
+    private void emitUpdated(int num, String before, String after) {
+        if (publisher != null && !after.equals(before)) {
+            pending.add(new TaskEvent(TaskEvent.Kind.UPDATED, num, tasks.id(num), after, before));
+        }
     }
 
     /**
@@ -131,10 +687,9 @@ public class TaskList {
      *
      * @param index at which content need to be checked.
      * @return boolean for content validity.
-     * @throw InvalidIndexException if array at specific index is null
      */
     public boolean checkValidIndex(int index) {
-        return (index >= 0 && arr[index] != null);
+        return (index >= 0 && index < tasks.size());
     }
 
     /**
@@ -145,8 +700,14 @@ public class TaskList {
         if (this.getValidLen() <= 0) {
             throw new EmptyTaskListException();
         }
-        Parser.updateLastTaskList(new TaskList(Arrays.copyOf(arr, 100)));
-        this.arr = new String[100];
+        keep(Change.replace(tasks, status));
+        this.tasks = tasks.emptyCopy();
+        this.views = tasks.keepsDates() ? null : new SortedViews();
+        this.tagIndex = new TagIndex();
+        this.urgency = new UrgencyHeap();
+        this.status = new StatusIndex();
+        version++;
+        emit(TaskEvent.Kind.CLEARED, -1, -1, null, -1);
     }
 
     /**
@@ -158,29 +719,16 @@ public class TaskList {
      * @throw InvalidIndexException if array at specific index is null if array at specific index is null
      */
     public String delete(int num1) throws IOException, InvalidIndexException {
-        try {
-            if (num1 < this.getValidLen()) {
-                String original = arr[num1];
-                int trace = num1;
-                String[] originalList = new String[100];
-                for (int k = 0; k < 100; k++) {
-                    originalList[k] = arr[k];
-                }
-                Parser.updateLastTaskList(new TaskList(originalList));
-                Parser.updateLastCommandDetail(original);
-                arr[trace] = arr[trace + 1];
-                trace++;
-
-                while ((trace >= 1) && (originalList[trace - 1] != null)) {
-                    arr[trace] = originalList[trace + 1];
-                    trace++;
-                }
-                return (Ui.saysDeleteCommand(original, this.getValidLen()));
-            }
-        } catch (IndexOutOfBoundsException e) {
+        if (!checkValidIndex(num1)) {
             throw new InvalidIndexException();
         }
-        return new InvalidIndexException().getMessage();
+        String original = tasks.get(num1);
+        keep(Change.insert(tasks.id(num1), original));
+        Parser.updateLastCommandDetail(original);
+        emit(TaskEvent.Kind.REMOVED, num1, tasks.id(num1), null, num1);
+        removeAt(num1);
+        version++;
+        return (Ui.saysDeleteCommand(original, this.getValidLen()));
     }
 
 
@@ -192,11 +740,87 @@ public class TaskList {
      * @return new task list with task added.
      */
     public String add(Task task) {
-        int len = this.getValidLen();
-        Parser.updateLastTaskList(new TaskList(Arrays.copyOf(arr, 100)));
-        arr[len] = task.toString();
-        Parser.updateLastCommandDetail(task.toString());
-        return Ui.saysAddCommand(task.toString(), this.getValidLen());
+        String line = task.toString();
+        keep(Change.remove(nextId));
+        insertAt(tasks.size(), line, nextId);
+        emit(TaskEvent.Kind.ADDED, tasks.size() - 1, nextId, line, -1);
+        nextId++;
+        version++;
+        Parser.updateLastCommandDetail(line);
+        return Ui.saysAddCommand(line, this.getValidLen());
+    }
+
+    /**
+     * Returns the words of a task's detail, e.g. "return" and "book" for "[D][ ] return book  (by: Nov 1 2026)".
+     * Words shorter than three characters are left out.
+     *
+     * @param line stored line of a task.
+     * @return words of the detail, in order.
+     */
+    public static List<String> detailWords(String line) {
+        List<String> res = new ArrayList<>();
+        if (line.length() <= 7) {
+            return res;
+        }
+        int end = line.indexOf("  (", 7);
+        if (end < 0 && line.endsWith("}")) {
+            end = line.lastIndexOf(" {");
+        }
+        String detail = line.substring(7, end < 0 ? line.length() : end);
+        for (String word : detail.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= 3) {
+                res.add(word);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Removes done tasks from the list in one pass and returns them, to be moved to the archive.
+     * Undo cannot bring them back, since they are in the archive by then.
+     *
+     * @param before if not null, only done deadlines and events dated before this day are removed.
+     * @return stored lines of the removed tasks, in list order.
+     */
+    public List<String> removeDone(LocalDate before) {
+        BitSet done = status.matching(null, true);
+        List<String> removed = new ArrayList<>();
+        TaskStore kept = tasks.emptyCopy();
+        StatusIndex keptStatus = new StatusIndex();
+        for (int i = 0; i < tasks.size(); i++) {
+            String line = tasks.get(i);
+            if (done.get(i) && (before == null || isBefore(startOf(i, line), before))) {
+                removed.add(line);
+            } else {
+                kept.add(line, tasks.id(i));
+                keptStatus.add(tasks.type(i), tasks.isDone(i));
+            }
+        }
+        if (!removed.isEmpty()) {
+            overwrite(new TaskList(kept, keptStatus));
+        }
+        return removed;
+    }
+
+    private static boolean isBefore(LocalDateTime time, LocalDate day) {
+        return time != null && time.toLocalDate().isBefore(day);
+    }
+
+    /**
+     * Returns the stored lines of tasks that contain the given keyword, in list order.
+     *
+     * @param keyWord given keyword.
+     * @return matching task lines.
+     */
+    public List<String> matching(String keyWord) {
+        byte[] keyword = keyWord.getBytes(StandardCharsets.UTF_8);
+        List<String> res = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.contains(i, keyword)) {
+                res.add(tasks.get(i));
+            }
+        }
+        return res;
     }
 
     /**
@@ -206,15 +830,14 @@ public class TaskList {
      * @print tasks that contain the given keyword in task list.
      */
     public String findWord(String keyWord) {
+        byte[] keyword = keyWord.getBytes(StandardCharsets.UTF_8);
         int trace = 0;
-        String res = "";
-        for (int i = 0; i < arr.length; i++) {
-            if (arr[i] == null) {
-                break;
-            } else if (arr[i].contains(keyWord)) {
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.contains(i, keyword)) {
                 trace++;
-                res += (String.format("%d. %s", trace, arr[i]));
-                res += "\n";
+                res.append(String.format("%d. %s", trace, tasks.get(i)));
+                res.append("\n");
             }
         }
         return ("WOOF! Here  are the matching tasks in the EVIL list:" + "\n" + res);
@@ -226,14 +849,90 @@ public class TaskList {
      * @return true if there is any task contains the keyword and false otherwise.
      */
     public boolean checkWord(String keyWord) {
-        for (int i = 0; i < arr.length; i++) {
-            if (arr[i] == null) {
-                break;
-            } else if (arr[i].contains(keyWord)) {
+        byte[] keyword = keyWord.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.contains(i, keyword)) {
                 return true;
             }
         }
         return false;
     }
-}
 
+    /**
+     * Lists every deadline and event that falls between from and to (both inclusive), in date order.
+     * Repeating tasks are expanded lazily, one occurrence at a time, so only their rules are kept.
+     * If the store keeps dates, tasks that do not repeat and lie wholly outside the window are skipped without
+     * decoding their lines.
+     *
+     * @param from first day of the window.
+     * @param to last day of the window.
+     * @return occurrences one-by-one.
+     */
+    public String upcoming(LocalDate from, LocalDate to) {
+        PriorityQueue<Occurrences> queue = new PriorityQueue<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.type(i) == TaskType.TODO || tasks.keepsDates() && !tasks.repeats(i)
+                    && !isWithin(tasks.start(i), tasks.end(i), from, to)) {
+                continue;
+            }
+            String line = tasks.get(i);
+            Iterator<LocalDate> days = Task.fromString(line).occurrences(from, to);
+            if (days.hasNext()) {
+                queue.add(new Occurrences(days, line, i));
+            }
+        }
+        StringBuilder res = new StringBuilder();
+        int trace = 0;
+        while (!queue.isEmpty()) {
+            Occurrences next = queue.poll();
+            trace++;
+            res.append(String.format("%d. %s: %s", trace, next.day.format(occurrenceFormat), next.task));
+            res.append("\n");
+            if (next.advance()) {
+                queue.add(next);
+            }
+        }
+        if (trace == 0) {
+            return "WOOF! Nothing is happening in that period, Boss!";
+        }
+        return ("Here are the EVIL plans coming up:" + "\n" + res);
+    }
+
+    /**
+     * Returns whether a task from start to end, both possibly null, is on some day between from and to.
+     */
+    private static boolean isWithin(LocalDateTime start, LocalDateTime end, LocalDate from, LocalDate to) {
+        return start != null && !start.toLocalDate().isAfter(to) && !end.toLocalDate().isBefore(from);
+    }
+
+    /**
+     * Cursor over the remaining occurrences of one task, ordered by its next day.
+     */
+    private static class Occurrences implements Comparable<Occurrences> {
+        private final Iterator<LocalDate> days;
+        private final String task;
+        private final int index;
+        private LocalDate day;
+
+        Occurrences(Iterator<LocalDate> days, String task, int index) {
+            this.days = days;
+            this.task = task;
+            this.index = index;
+            this.day = days.next();
+        }
+
+        boolean advance() {
+            if (!days.hasNext()) {
+                return false;
+            }
+            day = days.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Occurrences other) {
+            int byDay = day.compareTo(other.day);
+            return byDay != 0 ? byDay : Integer.compare(index, other.index);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package duke.command;
+
+import java.time.LocalDateTime;
+
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.TaskType;
+
+/**
+ * Holds the tasks of a task list, in order, each with an id that increases along the list.
+ * Implementations decide how tasks are laid out in memory; the task list only sees stored lines.
+ */
+interface TaskStore {
+    /**
+     * Returns a new empty store of the kind selected by the {@code duke.store} system property:
+     * "offheap" for {@link OffHeapTaskStore}, anything else for {@link CompactTaskStore}.
+     */
+    static TaskStore create() {
+        if ("offheap".equalsIgnoreCase(System.getProperty("duke.store"))) {
+            return new OffHeapTaskStore();
+        }
+        return new CompactTaskStore();
+    }
+
+    /**
+     * Returns the number of tasks in the store.
+     */
+    int size();
+
+    /**
+     * Returns the id of the task at the given index.
+     */
+    long id(int i);
+
+    /**
+     * Returns whether the task at the given index is marked as done.
+     */
+    boolean isDone(int i);
+
+    /**
+     * Returns the type of the task at the given index, or null if its line was not a well-formed task.
+     */
+    TaskType type(int i);
+
+    /**
+     * Returns whether the store keeps the dates of its tasks apart from their lines, so that
+     * {@link #start(int)}, {@link #end(int)} and {@link #repeats(int)} do not decode a line.
+     */
+    default boolean keepsDates() {
+        return false;
+    }
+
+    /**
+     * Returns the start of the day of the deadline, or the start of the event, at the given index, or null for
+     * other tasks. This is the time date filters and sorting go by.
+     */
+    default LocalDateTime start(int i) {
+        return Query.timeOf(Task.fromString(get(i)));
+    }
+
+    /**
+     * Returns the start of the day of the deadline, or the end of the event, at the given index, or null for
+     * other tasks.
+     */
+    default LocalDateTime end(int i) {
+        Task task = Task.fromString(get(i));
+        return task instanceof Event ? ((Event) task).getEnd() : Query.timeOf(task);
+    }
+
+    /**
+     * Returns whether the deadline or event at the given index repeats.
+     */
+    default boolean repeats(int i) {
+        Task task = Task.fromString(get(i));
+        return task instanceof Deadline && ((Deadline) task).getRecurrence() != null
+                || task instanceof Event && ((Event) task).getRecurrence() != null;
+    }
+
+    /**
+     * Appends a task given as its stored line.
+     *
+     * @param line stored line such as "[T][ ] borrow book".
+     * @param id id of the task, greater than the id of every task already stored.
+     */
+    void add(String line, long id);
+
+    /**
+     * Inserts a task given as its stored line at the given index, shifting later tasks up.
+     *
+     * @param i index of the task, where its id keeps ids increasing along the store.
+     * @param line stored line such as "[T][ ] borrow book".
+     * @param id id of the task.
+     */
+    void insert(int i, String line, long id);
+
+    /**
+     * Marks or unmarks the task at the given index. Lines that are not well-formed tasks stay as they are.
+     */
+    void setDone(int i, boolean isDone);
+
+    /**
+     * Removes the task at the given index, shifting later tasks down.
+     */
+    void remove(int i);
+
+    /**
+     * Returns the stored line of the task at the given index, rendered on demand.
+     */
+    String get(int i);
+
+    /**
+     * Returns whether the stored line of the task at the given index contains the keyword.
+     *
+     * @param i index of the task.
+     * @param keyword UTF-8 bytes of the keyword.
+     */
+    boolean contains(int i, byte[] keyword);
+
+    /**
+     * Returns an empty store of the same kind, for rebuilding the task list without some of its tasks.
+     */
+    TaskStore emptyCopy();
+
+    /**
+     * Returns the position of the task with the given id, or a negative number if there is no such task.
+     */
+    int indexOf(long id);
+}
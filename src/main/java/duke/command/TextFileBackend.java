@@ -0,0 +1,64 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the tasks as one stored line each in a UTF-8 text file, rewritten whole on every save.
+ */
+class TextFileBackend implements StorageBackend {
+    private final Path path;
+    private long lastBytes;
+
+    TextFileBackend(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Path file() {
+        return path;
+    }
+
+    @Override
+    public TaskList load() throws IOException {
+        return new TaskList(lines().toArray(new String[0]));
+    }
+
+    @Override
+    public List<String> lines() throws IOException {
+        if (!Files.exists(path)) {
+            lastBytes = 0;
+            return new ArrayList<>();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        lastBytes = bytes.length;
+        return new String(bytes, StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.isBlank())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void save(TaskList tasks) throws IOException {
+        String[] arr = tasks.readTaskList();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null) {
+                break;
+            }
+            content.append(arr[i]).append("\n");
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(path, bytes);
+        lastBytes = bytes.length;
+    }
+
+    @Override
+    public long lastBytes() {
+        return lastBytes;
+    }
+}
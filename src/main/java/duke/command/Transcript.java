@@ -0,0 +1,258 @@
+package duke.command;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the conversation between the user and Duke across sessions.
+ * Every message is appended to a transcript file as soon as it is said, one line per message, and only the
+ * newest messages are also kept in memory, in a ring buffer of fixed capacity. Other messages are read back
+ * from the file a page at a time, so memory stays the same however long the history gets.
+ */
+public class Transcript implements Closeable {
+    private static final int CHUNK = 8192;
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final Message[] ring;
+    private int head;
+    private int count;
+    private long size;
+
+    /**
+     * Opens the transcript, creating the file if needed, and reads its newest messages into memory.
+     *
+     * @param path transcript file.
+     * @param capacity number of newest messages kept in memory.
+     * @throws IOException if the file cannot be read or created.
+     */
+    public Transcript(Path path, int capacity) throws IOException {
+        this.path = path;
+        this.ring = new Message[capacity];
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        this.size = Files.size(path);
+        for (Message message : older(size, capacity)) {
+            remember(message);
+        }
+    }
+
+    /**
+     * Adds a message to the end of the transcript.
+     *
+     * @param isFromUser true if the user said it, false if Duke did.
+     * @param text what was said.
+     * @return the message, with its position in the file.
+     * @throws IOException if the message cannot be written.
+     */
+    public Message add(boolean isFromUser, String text) throws IOException {
+        String line = (isFromUser ? "U " : "D ") + escape(text) + "\n";
+        writer.write(line);
+        writer.flush();
+        Message message = new Message(isFromUser, text, size);
+        size += line.getBytes(StandardCharsets.UTF_8).length;
+        remember(message);
+        return message;
+    }
+
+    private void remember(Message message) {
+        ring[(head + count) % ring.length] = message;
+        if (count < ring.length) {
+            count++;
+        } else {
+            head = (head + 1) % ring.length;
+        }
+    }
+
+    /**
+     * Returns the newest messages, the oldest first.
+     *
+     * @return messages kept in memory.
+     */
+    public List<Message> recent() {
+        List<Message> res = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            res.add(ring[(head + i) % ring.length]);
+        }
+        return res;
+    }
+
+    /**
+     * Returns up to count messages said just before the given position, the oldest first.
+     * Messages still in memory are served from the ring buffer; older ones are read backwards from the file.
+     *
+     * @param before position of a message, e.g. the oldest one shown.
+     * @param count maximum number of messages.
+     * @return earlier messages, empty if there are none.
+     * @throws IOException if the file cannot be read.
+     */
+    public List<Message> older(long before, int count) throws IOException {
+        List<Message> res = new ArrayList<>();
+        for (int i = this.count - 1; i >= 0 && res.size() < count; i--) {
+            Message message = ring[(head + i) % ring.length];
+            if (message.position < before) {
+                res.add(message);
+            }
+        }
+        long end = res.isEmpty() ? before : res.get(res.size() - 1).position;
+        if (res.size() < count && end > 0) {
+            readBackwards(end, count - res.size(), res);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /**
+     * Returns up to count messages said just after the given position, the oldest first.
+     * Messages still in memory are served from the ring buffer; older ones are read forwards from the file.
+     *
+     * @param after position of a message, e.g. the newest one shown, or -1 to start from the first message.
+     * @param count maximum number of messages.
+     * @return later messages, empty if there are none.
+     * @throws IOException if the file cannot be read.
+     */
+    public List<Message> newer(long after, int count) throws IOException {
+        List<Message> res = new ArrayList<>();
+        if (this.count > 0 && ring[head].position <= after) {
+            for (int i = 0; i < this.count && res.size() < count; i++) {
+                Message message = ring[(head + i) % ring.length];
+                if (message.position > after) {
+                    res.add(message);
+                }
+            }
+        } else if (count > 0) {
+            readForwards(after, count, res);
+        }
+        return res;
+    }
+
+    /**
+     * Reads whole lines forwards from the line after the given position, oldest first, until enough are read.
+     */
+    private void readForwards(long after, int count, List<Message> res) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            byte[] chunk = new byte[CHUNK];
+            long position = Math.max(after, 0);
+            long lineStart = after < 0 ? 0 : -1;
+            while (position < size && res.size() < count) {
+                int length = (int) Math.min(CHUNK, size - position);
+                file.seek(position);
+                file.readFully(chunk, 0, length);
+                for (int i = 0; i < length && res.size() < count; i++) {
+                    if (chunk[i] == '\n') {
+                        long at = position + i;
+                        if (lineStart >= 0) {
+                            res.add(decode(file, lineStart, at + 1));
+                        }
+                        lineStart = at + 1;
+                    }
+                }
+                position += length;
+            }
+        }
+    }
+
+    /**
+     * Reads whole lines backwards from the given position, newest first, until enough are read.
+     */
+    private void readBackwards(long end, int count, List<Message> res) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            byte[] chunk = new byte[CHUNK];
+            long lineEnd = end;
+            long position = end;
+            while (position > 0 && count > 0) {
+                int length = (int) Math.min(CHUNK, position);
+                position -= length;
+                file.seek(position);
+                file.readFully(chunk, 0, length);
+                for (int i = length - 1; i >= 0 && count > 0; i--) {
+                    long at = position + i;
+                    if (chunk[i] == '\n' && at != lineEnd - 1) {
+                        res.add(decode(file, at + 1, lineEnd));
+                        lineEnd = at + 1;
+                        count--;
+                    }
+                }
+            }
+            if (position == 0 && count > 0 && lineEnd > 0) {
+                res.add(decode(file, 0, lineEnd));
+            }
+        }
+    }
+
+    private static Message decode(RandomAccessFile file, long start, long end) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        file.seek(start);
+        file.readFully(bytes);
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\n' ? bytes.length - 1 : bytes.length;
+        String line = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        return new Message(line.startsWith("U "), unescape(line.substring(Math.min(2, line.length()))), start);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder res = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                i++;
+                res.append(text.charAt(i) == 'n' ? '\n' : text.charAt(i));
+            } else {
+                res.append(c);
+            }
+        }
+        return res.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * A message in the transcript.
+     */
+    public static class Message {
+        private final boolean isFromUser;
+        private final String text;
+        private final long position;
+
+        Message(boolean isFromUser, String text, long position) {
+            this.isFromUser = isFromUser;
+            this.text = text;
+            this.position = position;
+        }
+
+        public boolean isFromUser() {
+            return isFromUser;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns where the message starts in the transcript file, used to page back from it.
+         *
+         * @return byte offset of the message.
+         */
+        public long getPosition() {
+            return position;
+        }
+    }
+}
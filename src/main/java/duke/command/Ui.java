@@ -1,22 +1,41 @@
 package duke.command;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 
+import duke.exception.DukeException;
 import duke.exception.EmptyTaskListException;
+import duke.exception.FileLoadingException;
 import duke.exception.IndexNotNumberException;
-import duke.exception.InvalidDeadlineDateException;
-import duke.exception.InvalidEventDateTimeException;
+import duke.exception.InvalidArchiveException;
+import duke.exception.InvalidCountException;
+import duke.exception.InvalidDateRangeException;
 import duke.exception.InvalidIndexException;
+import duke.exception.InvalidQueryException;
+import duke.exception.InvalidWorkspaceException;
 import duke.exception.MissingContentException;
-import duke.task.Deadline;
-import duke.task.Event;
-import duke.task.Todo;
 
 /**
  * Deals with interaction with users
  */
 public class Ui {
+    private static final String NOT_FOUND = "Sorry boss! Kyle cannot find any tasks recorded!";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ResponseCache cache = new ResponseCache(Long.getLong("duke.cache.chars", 1 << 20));
+    private BufferedReader in;
+    private PrintWriter out;
+
     public Ui() {}
 
     /**
@@ -28,17 +47,31 @@ public class Ui {
                 + "| | | | | | | |/ / _ \\\n"
                 + "| |_| | |_| |   <  __/\n"
                 + "|____/ \\__,_|_|\\_\\___|\n";
-        System.out.println("Hello from\n" + logo);
-        System.out.println("\nHello, I'm Kyle");
-        System.out.println("What can I do for you?");
+        says("Hello from\n" + logo);
+        says("\nHello, I'm Kyle");
+        says("What can I do for you?");
     }
 
     /**
      * Lets Duke say something
+     * The message is buffered, and shown once Duke has answered every command it was given so far.
      * @param message given message that Duke needs to say
      */
     public void says(String message) {
-        System.out.println(message);
+        if (out == null) {
+            out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)),
+                    BUFFER_SIZE));
+        }
+        out.println(message);
+    }
+
+    /**
+     * Shows every message Duke has said so far.
+     */
+    public void flush() {
+        if (out != null) {
+            out.flush();
+        }
     }
 
     /**
@@ -126,21 +159,141 @@ public class Ui {
 
 
     /**
-     * Returns Duke's respond to find command from user
+     * Returns Duke's respond to find command from user, reusing the last answer if the list has not changed
      * Update the most recent command correspondingly
+     * @param taskList original task list
      * @param arr input array.
      * @return appropriate message
+     * @throws DukeException if no keyword is given
+     */
+    public String findWord(TaskList taskList, String[] arr) throws DukeException {
+        if (arr.length < 2) {
+            throw new MissingContentException();
+        }
+        String keyword = arr[1];
+        String found = cache.get(taskList, "find " + keyword,
+                () -> taskList.checkWord(keyword) ? taskList.findWord(keyword) : NOT_FOUND);
+        if (!found.equals(NOT_FOUND)) {
+            Parser.updateLastCommand("find");
+        }
+        return found;
+    }
+
+
+    /**
+     * Returns tasks containing the keyword in every workspace, e.g. find /all book
+     * @param workspaces every task list
+     * @param arr input array, holding the keyword after /all
+     * @return appropriate message
+     * @throws MissingContentException if no keyword is given
      */
-    public String findWord(TaskList taskList, String[] arr, boolean containsKeyword) {
-        if (arr.length >= 1) {
-            if (containsKeyword) {
-                Parser.updateLastCommand("find");
-                return (taskList.findWord(arr[1]));
-            } else {
-                return ("Sorry boss! Kyle cannot find any tasks recorded!");
+    public String findAll(Workspaces workspaces, String[] arr) throws MissingContentException {
+        if (arr.length < 3) {
+            throw new MissingContentException();
+        }
+        Map<String, List<String>> found = workspaces.findAll(arr[2]);
+        if (found.isEmpty()) {
+            return ("Sorry boss! Kyle cannot find any tasks recorded!");
+        }
+        StringBuilder res = new StringBuilder("WOOF! Here  are the matching tasks in every EVIL list:\n");
+        for (Map.Entry<String, List<String>> entry : found.entrySet()) {
+            res.append(entry.getKey()).append(":\n");
+            int trace = 0;
+            for (String line : entry.getValue()) {
+                trace++;
+                res.append(String.format("%d. %s", trace, line)).append("\n");
             }
         }
-        return (new MissingContentException()).getMessage();
+        Parser.updateLastCommand("find");
+        return res.toString();
+    }
+
+    /**
+     * Moves done tasks to the compressed archive, e.g. archive, or archive /before 2026-10-01
+     * Archived tasks cannot be brought back by undo
+     * @param workspace task list in use
+     * @param arr input array, optionally holding /before and a day
+     * @return appropriate message
+     * @throws InvalidArchiveException if the command is malformed
+     * @throws FileLoadingException if the archive cannot be written
+     */
+    public String archive(Workspaces.Workspace workspace, String[] arr) throws InvalidArchiveException,
+            FileLoadingException {
+        LocalDate before = null;
+        if (arr.length == 3 && arr[1].equals("/before")) {
+            try {
+                before = LocalDate.parse(arr[2]);
+            } catch (DateTimeParseException e) {
+                throw new InvalidArchiveException();
+            }
+        } else if (arr.length != 1) {
+            throw new InvalidArchiveException();
+        }
+        List<String> archived;
+        try {
+            archived = workspace.archiveDone(before);
+        } catch (IOException e) {
+            throw new FileLoadingException(workspace.getName() + " archive");
+        }
+        Parser.updateLastCommand("archive");
+        if (archived.isEmpty()) {
+            return ("WOOF! Boss has no done tasks for Kyle to archive!");
+        }
+        return ("WOOF! Kyle has archived " + archived.size() + " done tasks. Now Boss has "
+                + workspace.getTasks().getValidLen() + " tasks in the EVIL list");
+    }
+
+    /**
+     * Returns archived tasks containing the keyword, e.g. find /archive book
+     * @param workspace task list in use
+     * @param arr input array, holding the keyword after /archive
+     * @return appropriate message
+     * @throws MissingContentException if no keyword is given
+     * @throws FileLoadingException if the archive cannot be read
+     */
+    public String findArchived(Workspaces.Workspace workspace, String[] arr) throws MissingContentException,
+            FileLoadingException {
+        if (arr.length < 3) {
+            throw new MissingContentException();
+        }
+        List<String> found;
+        try {
+            found = workspace.findArchived(arr[2]);
+        } catch (IOException e) {
+            throw new FileLoadingException(workspace.getName() + " archive");
+        }
+        if (found.isEmpty()) {
+            return ("Sorry boss! Kyle cannot find any archived tasks!");
+        }
+        StringBuilder res = new StringBuilder("WOOF! Here  are the matching tasks in the EVIL archive:\n");
+        int trace = 0;
+        for (String line : found) {
+            trace++;
+            int space = line.indexOf(' ');
+            res.append(String.format("%d. %s (archived %s)", trace, line.substring(space + 1),
+                    line.substring(0, space))).append("\n");
+        }
+        Parser.updateLastCommand("find");
+        return res.toString();
+    }
+
+    /**
+     * Switches to another task list, e.g. use work, or shows the lists there are
+     * Updates the most recent command so that undo cannot reach across lists
+     * @param workspaces every task list
+     * @param arr input array, optionally holding the name of the list
+     * @return appropriate message
+     * @throws InvalidWorkspaceException if the name is not valid
+     */
+    public String use(Workspaces workspaces, String[] arr) throws InvalidWorkspaceException {
+        if (arr.length < 2) {
+            return ("WOOF! Kyle is looking at the " + workspaces.current().getName() + " list. Boss has these lists: "
+                    + String.join(", ", workspaces.names()));
+        }
+        Workspaces.Workspace workspace = workspaces.use(arr[1]);
+        Parser.updateLastCommand("use " + arr[1]);
+        return ("WOOF! Kyle is now looking at the " + workspace.getName() + " list, which has "
+                + workspace.getTasks().getValidLen() + " tasks");
     }
 
     /**
@@ -154,7 +307,107 @@ public class Ui {
             throw new EmptyTaskListException();
         }
         Parser.updateLastCommand("list");
-        return (taskList.list());
+        return (cache.get(taskList, "list", taskList::list));
+    }
+
+    /**
+     * Returns message for list command from user, filtered and sorted if a query is given
+     * @param taskList original task list
+     * @param arr input array, e.g. list /type D /done no /sort date /limit 20, list #ops -#later, or list done
+     * @return appropriate message
+     * @throws EmptyTaskListException if task list is currently empty
+     * @throws InvalidQueryException if the query is malformed
+     */
+    public String list(TaskList taskList, String[] arr) throws EmptyTaskListException, InvalidQueryException {
+        if (arr.length <= 1) {
+            return list(taskList);
+        }
+        if (taskList.isEmpty()) {
+            throw new EmptyTaskListException();
+        }
+        String answer = cache.get(taskList, String.join(" ", arr), () -> {
+            Query query = arr.length == 2 && !arr[1].startsWith("/") && !Query.isTagTerm(arr[1])
+                    ? Query.shorthand(arr[1])
+                    : Query.parse(arr);
+            return taskList.list(query);
+        });
+        Parser.updateLastCommand("list");
+        return answer;
+    }
+
+    /**
+     * Returns the most urgent open tasks
+     * @param taskList original task list
+     * @param arr input array, optionally holding how many tasks to show, e.g. next 10
+     * @return appropriate message
+     * @throws InvalidCountException if the number of tasks is not a positive number
+     */
+    public String next(TaskList taskList, String[] arr) throws InvalidCountException {
+        int count = 1;
+        if (arr.length == 2) {
+            try {
+                count = Integer.parseInt(arr[1]);
+            } catch (NumberFormatException e) {
+                throw new InvalidCountException();
+            }
+        }
+        if (arr.length > 2 || count < 1) {
+            throw new InvalidCountException();
+        }
+        Parser.updateLastCommand("next");
+        return taskList.next(count);
+    }
+
+    /**
+     * Returns occurrences of deadlines and events in the given window
+     * Defaults to the coming week if no window is given
+     * @param taskList original task list
+     * @param arr input array, optionally holding the first and last day of the window
+     * @return appropriate message
+     * @throws InvalidDateRangeException if the window is malformed
+     */
+    public String upcoming(TaskList taskList, String[] arr) throws InvalidDateRangeException {
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(7);
+        try {
+            if (arr.length == 3) {
+                from = LocalDate.parse(arr[1]);
+                to = LocalDate.parse(arr[2]);
+            } else if (arr.length != 1) {
+                throw new InvalidDateRangeException();
+            }
+        } catch (DateTimeParseException e) {
+            throw new InvalidDateRangeException();
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidDateRangeException();
+        }
+        Parser.updateLastCommand("upcoming");
+        return taskList.upcoming(from, to);
+    }
+
+    /**
+     * Returns a one-line summary of the task list
+     * @param taskList original task list
+     * @return appropriate message
+     */
+    public String summary(TaskList taskList) {
+        Parser.updateLastCommand("summary");
+        return "WOOF! Boss has " + taskList.summary(LocalDate.now());
+    }
+
+    /**
+     * Returns a one-line summary of the task list, or of how often list and find answers were reused
+     * if given summary /cache
+     * @param taskList original task list
+     * @param arr input array
+     * @return appropriate message
+     */
+    public String summary(TaskList taskList, String[] arr) {
+        if (arr.length > 1 && arr[1].equals("/cache")) {
+            return "WOOF! Kyle's answer cache: " + cache.stats();
+        }
+        return summary(taskList);
     }
 
     /**
@@ -167,15 +420,39 @@ public class Ui {
     }
 
     /**
-     * Gets input/command from users
-     * @return array consists of user's command line
+     * Reads the next command line from users, as typed
+     * Lines are read through one buffer, so piped input is taken in large reads. Messages said so far are shown
+     * before waiting for a line that has not arrived yet.
+     * @return user's command line, or null once the input has ended
      */
-    public String[] getInput() {
-        Scanner sc = new Scanner(System.in);
-        String newLine = sc.nextLine();
-        assert newLine != "" : "Empty input from user";
-        String[] arr = newLine.split(" ");
-        return arr;
+    public String readLine() {
+        if (in == null) {
+            in = new BufferedReader(new InputStreamReader(System.in), BUFFER_SIZE);
+        }
+        try {
+            if (!in.ready()) {
+                flush();
+            }
+            String newLine = in.readLine();
+            if (newLine != null) {
+                SessionTrace.record(newLine);
+            }
+            return newLine;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the next command line has already arrived, as it has when commands are piped in.
+     * @return true if reading the next line would not wait
+     */
+    public boolean hasPendingInput() {
+        try {
+            return in != null && in.ready();
+        } catch (IOException e) {
+            return false;
+        }
     }
 
     /**
@@ -258,35 +535,28 @@ public class Ui {
      * @return new updated task list
      */
     public String addToDo(TaskList listOfAction, String[] command) {
-        String remaining = "";
         try {
-            remaining = Parser.parseToDo(command);
-        } catch (MissingContentException e) {
-            return e.getMessage();
-        }
-        if (remaining.equals("")) {
-            return (new MissingContentException().getMessage());
+            TaskCommand todo = FlagParser.parse(String.join(" ", command));
+            Parser.updateLastCommand("todo");
+            return (listOfAction.add(todo.toTask()));
+        } catch (DukeException e) {
+            return (e.getMessage());
         }
-        Todo newTask = new Todo(command[0], remaining, false);
-        Parser.updateLastCommand("todo");
-        return (listOfAction.add(newTask));
     }
 
     /**
      * Adds new deadline to task list
      * Updates the most recent command correspondingly
      * @param listOfAction original task list
-     * @param command user input
+     * @param input user's command line, as typed
      * @return new updated task list
      */
-    public String addDeadline(TaskList listOfAction, String[] command) {
+    public String addDeadline(TaskList listOfAction, CharSequence input) {
         try {
-            String detail = new Parser().getDeadlineDetail(command);
-            String remaining = new Parser().getDeadlineFull(command);
+            TaskCommand command = FlagParser.parse(input);
             Parser.updateLastCommand("deadline");
-            Deadline newTaskDeadline = new Deadline(command[0], detail, remaining);
-            return (listOfAction.add(newTaskDeadline));
-        } catch (MissingContentException | InvalidDeadlineDateException e) {
+            return (listOfAction.add(command.toTask()));
+        } catch (DukeException e) {
             return (e.getMessage());
         }
     }
@@ -295,18 +565,16 @@ public class Ui {
      * Adds new event to task list
      * Updates the most recent command correspondingly
      * @param listOfAction original tasklist
-     * @param command from user's input
+     * @param input user's command line, as typed
      * @return Duke's response to user's input
      */
-    public String addEvent(TaskList listOfAction, String[] command) throws InvalidEventDateTimeException {
+    public String addEvent(TaskList listOfAction, CharSequence input) {
         try {
-            Event newEvent = Parser.getEventFull(command);
+            TaskCommand command = FlagParser.parse(input);
             Parser.updateLastCommand("event");
-            return (listOfAction.add(newEvent));
-        } catch (MissingContentException | InvalidEventDateTimeException e) {
+            return (listOfAction.add(command.toTask()));
+        } catch (DukeException e) {
             return (e.getMessage());
-        } catch (IndexOutOfBoundsException e) {
-            throw new InvalidEventDateTimeException();
         }
     }
 }
@@ -0,0 +1,159 @@
+package duke.command;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import duke.task.Priority;
+import duke.task.Task;
+
+/**
+ * Keeps the open tasks of a task list in a binary heap, most urgent first: by priority, then by the time a deadline
+ * is due or an event starts, then in the order they were added. Tasks without a priority come after low ones and
+ * tasks without a date after dated ones. The slot of each task in the heap is kept by id, so marking or deleting a
+ * task takes it out in O(log n), and the first k tasks are read without changing the heap in O(k log k).
+ */
+class UrgencyHeap {
+    private static final long NO_DUE = Long.MAX_VALUE;
+
+    private int[] ranks = new int[16];
+    private long[] dues = new long[16];
+    private long[] ids = new long[16];
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private int size;
+
+    /**
+     * Adds an open task, or moves it to its new place if it is already in the heap.
+     *
+     * @param id id of the task in the task list.
+     * @param line stored task line.
+     */
+    void add(long id, String line) {
+        Task task = Task.fromString(line);
+        LocalDateTime due = Query.timeOf(task);
+        int rank = Priority.rank(task.getPriority());
+        long dueKey = due == null ? NO_DUE : due.toEpochSecond(ZoneOffset.UTC);
+        Integer slot = slots.get(id);
+        if (slot != null) {
+            ranks[slot] = rank;
+            dues[slot] = dueKey;
+            siftDown(siftUp(slot));
+            return;
+        }
+        if (size == ids.length) {
+            ranks = Arrays.copyOf(ranks, size * 2);
+            dues = Arrays.copyOf(dues, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ranks[size] = rank;
+        dues[size] = dueKey;
+        ids[size] = id;
+        slots.put(id, size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Takes the task with the given id out of the heap, if it is there.
+     *
+     * @param id id of the task in the task list.
+     */
+    void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        size--;
+        if (slot < size) {
+            move(size, slot);
+            siftDown(siftUp(slot));
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ids of the most urgent tasks, most urgent first. The heap is walked from its root, keeping the
+     * slots that may come next in a small heap of their own, so only about 2k slots are looked at.
+     *
+     * @param count most tasks to return.
+     * @return ids of up to count tasks.
+     */
+    List<Long> first(int count) {
+        List<Long> res = new ArrayList<>();
+        PriorityQueue<Integer> frontier = new PriorityQueue<>(this::compare);
+        if (size > 0) {
+            frontier.add(0);
+        }
+        while (!frontier.isEmpty() && res.size() < count) {
+            int slot = frontier.poll();
+            res.add(ids[slot]);
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                frontier.add(child);
+            }
+        }
+        return res;
+    }
+
+    private int compare(int a, int b) {
+        if (ranks[a] != ranks[b]) {
+            return Integer.compare(ranks[a], ranks[b]);
+        } else if (dues[a] != dues[b]) {
+            return Long.compare(dues[a], dues[b]);
+        }
+        return Long.compare(ids[a], ids[b]);
+    }
+
+    private int siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (compare(slot, parent) >= 0) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                if (compare(child, smallest) < 0) {
+                    smallest = child;
+                }
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int rank = ranks[a];
+        long due = dues[a];
+        long id = ids[a];
+        move(b, a);
+        ranks[b] = rank;
+        dues[b] = due;
+        ids[b] = id;
+        slots.put(id, b);
+    }
+
+    private void move(int from, int to) {
+        ranks[to] = ranks[from];
+        dues[to] = dues[from];
+        ids[to] = ids[from];
+        slots.put(ids[to], to);
+    }
+}
@@ -0,0 +1,145 @@
+package duke.command;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only store of UTF-8 encoded text of the tasks in one {@link CompactTaskStore}.
+ * Each distinct piece of text is stored once and referred to by an int, so tasks repeating the same
+ * detail or date cost a few bytes each instead of a String each.
+ * Every piece is stored as its length (a varint) followed by its bytes.
+ */
+class Utf8Arena {
+    private byte[] data = new byte[1024];
+    private int size = 0;
+    private int[] table = new int[256];
+    private int count = 0;
+
+    /**
+     * Returns the reference of the given text, storing it first if it is new.
+     *
+     * @param s text to store.
+     * @return reference to the text.
+     */
+    int intern(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        for (int slot = hash(bytes, 0, bytes.length) & mask; ; slot = (slot + 1) & mask) {
+            int ref = table[slot] - 1;
+            if (ref < 0) {
+                ref = append(bytes);
+                table[slot] = ref + 1;
+                count++;
+                if (count * 2 > table.length) {
+                    rehash();
+                }
+                return ref;
+            } else if (equalsAt(ref, bytes)) {
+                return ref;
+            }
+        }
+    }
+
+    /**
+     * Returns the text at the given reference.
+     *
+     * @param ref reference returned by {@link #intern(String)}.
+     * @return decoded text.
+     */
+    String decode(int ref) {
+        return new String(data, start(ref), length(ref), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of bytes of the text at the given reference.
+     */
+    int length(int ref) {
+        int len = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[ref++];
+            len |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return len;
+    }
+
+    /**
+     * Returns where the bytes of the text at the given reference begin.
+     */
+    int start(int ref) {
+        while (data[ref] < 0) {
+            ref++;
+        }
+        return ref + 1;
+    }
+
+    byte byteAt(int index) {
+        return data[index];
+    }
+
+    /**
+     * Returns the number of bytes of text stored, with their lengths.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes used by the arena, including free space at its end.
+     */
+    long capacity() {
+        return data.length + 4L * table.length;
+    }
+
+    private int append(byte[] bytes) {
+        int ref = size;
+        ensureCapacity(size + 5 + bytes.length);
+        int len = bytes.length;
+        while (len >= 0x80) {
+            data[size++] = (byte) (len | 0x80);
+            len >>>= 7;
+        }
+        data[size++] = (byte) len;
+        System.arraycopy(bytes, 0, data, size, bytes.length);
+        size += bytes.length;
+        return ref;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > data.length) {
+            data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+        }
+    }
+
+    private boolean equalsAt(int ref, byte[] bytes) {
+        int len = length(ref);
+        return len == bytes.length && Arrays.equals(data, start(ref), start(ref) + len, bytes, 0, len);
+    }
+
+    private void rehash() {
+        int[] old = table;
+        table = new int[old.length * 2];
+        int mask = table.length - 1;
+        for (int entry : old) {
+            if (entry == 0) {
+                continue;
+            }
+            int ref = entry - 1;
+            int slot = hash(data, start(ref), length(ref)) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry;
+        }
+    }
+
+    private static int hash(byte[] bytes, int from, int len) {
+        int h = 1;
+        for (int i = from; i < from + len; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,245 @@
+package duke.command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import duke.exception.FileLoadingException;
+import duke.exception.InvalidWorkspaceException;
+
+/**
+ * Keeps the named task lists, e.g. {@code use work} and {@code use home}, each with its own data file.
+ * The default list stays in the original data file and the others live in a workspaces folder next to it.
+ * A list is loaded the first time it is used, and only the most recently used ones are kept in memory;
+ * the least recently used list is dropped once there are too many. Nothing is lost when a list is dropped,
+ * since every command already saves the list it changed.
+ */
+public class Workspaces {
+    public static final String DEFAULT = "default";
+
+    private static final Integer ARCHIVE_AFTER_DAYS = Integer.getInteger("duke.archive.after");
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String EXTENSION = ".txt";
+    private static final String PAGES_EXTENSION = ".pages";
+
+    private final Path defaultFile;
+    private final Path folder;
+    private final Map<String, Workspace> loaded;
+    private Workspace current;
+
+    /**
+     * Initializes the workspaces and loads the default one.
+     * @param defaultFile data file of the default list, e.g. ./data/tasks.txt
+     * @param capacity number of lists kept in memory, at least 1
+     */
+    public Workspaces(Path defaultFile, int capacity) {
+        this.defaultFile = defaultFile;
+        this.folder = defaultFile.resolveSibling("workspaces");
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Workspace> eldest) {
+                boolean isDropped = size() > Math.max(capacity, 1) && eldest.getValue() != current;
+                if (isDropped) {
+                    eldest.getValue().getStorage().close();
+                }
+                return isDropped;
+            }
+        };
+        this.current = get(DEFAULT);
+    }
+
+    /**
+     * Returns the list commands currently work on.
+     *
+     * @return current workspace.
+     */
+    public Workspace current() {
+        loaded.get(current.name);
+        return current;
+    }
+
+    /**
+     * Switches to the named list, loading it if it is not in memory.
+     *
+     * @param name name of the list, created if it does not exist yet.
+     * @return the list switched to.
+     * @throws InvalidWorkspaceException if the name is not a valid file name.
+     */
+    public Workspace use(String name) throws InvalidWorkspaceException {
+        if (!NAME.matcher(name).matches()) {
+            throw new InvalidWorkspaceException();
+        }
+        current = get(name);
+        return current;
+    }
+
+    private Workspace get(String name) {
+        Workspace workspace = loaded.get(name);
+        if (workspace == null) {
+            workspace = new Workspace(name, fileOf(name));
+            loaded.put(name, workspace);
+        }
+        return workspace;
+    }
+
+    private Path fileOf(String name) {
+        return name.equals(DEFAULT) ? defaultFile : folder.resolve(name + EXTENSION);
+    }
+
+    /**
+     * Returns whether the named list is in memory.
+     *
+     * @param name name of the list.
+     * @return true if it is loaded.
+     */
+    public boolean isLoaded(String name) {
+        return loaded.containsKey(name);
+    }
+
+    /**
+     * Returns the names of every list, in memory or on disk, in alphabetical order.
+     *
+     * @return names of the lists.
+     */
+    public List<String> names() {
+        TreeSet<String> names = new TreeSet<>(loaded.keySet());
+        names.add(DEFAULT);
+        if (Files.isDirectory(folder)) {
+            try (Stream<Path> files = Files.list(folder)) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(file -> file.endsWith(EXTENSION) || file.endsWith(PAGES_EXTENSION))
+                        .map(file -> file.substring(0, file.lastIndexOf('.')))
+                        .filter(file -> NAME.matcher(file).matches())
+                        .forEach(names::add);
+            } catch (IOException e) {
+                System.out.println("An error occurred.");
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Finds the keyword in every list at once, one list per worker.
+     * Lists in memory are searched in place; the others are streamed from their files without being loaded,
+     * so a search does not push the lists in use out of memory.
+     *
+     * @param keyword word to look for.
+     * @return matching task lines of each list that has any, by list name in alphabetical order.
+     */
+    public Map<String, List<String>> findAll(String keyword) {
+        Map<String, Workspace> snapshot = new HashMap<>(loaded);
+        Map<String, Workspace> inMemory = new LinkedHashMap<>();
+        for (String name : names()) {
+            inMemory.put(name, snapshot.get(name));
+        }
+        return inMemory.entrySet().parallelStream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue() != null
+                        ? entry.getValue().getTasks().matching(keyword)
+                        : scan(fileOf(entry.getKey()), keyword)))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static List<String> scan(Path file, String keyword) {
+        StorageBackend backend = StorageBackend.create(file);
+        if (backend.file() != null && !Files.exists(backend.file()) && !Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            return backend.lines().stream().filter(line -> line.contains(keyword)).collect(Collectors.toList());
+        } catch (IOException e) {
+            return List.of();
+        } finally {
+            try {
+                backend.close();
+            } catch (IOException e) {
+                System.out.println("An error occurred.");
+            }
+        }
+    }
+
+    /**
+     * A named task list, the file it is saved to and its archive.
+     * With {@code -Dduke.archive.after=N}, done deadlines and events more than N days old are archived
+     * when the list is loaded.
+     */
+    public static class Workspace {
+        private final String name;
+        private final Storage storage;
+        private final TaskList tasks;
+        private final Archive archive;
+
+        Workspace(String name, Path file) {
+            this.name = name;
+            this.storage = new Storage(file.toString());
+            this.tasks = storage.load();
+            String fileName = file.getFileName().toString();
+            this.archive = new Archive(file.resolveSibling(fileName.replaceFirst("\\.txt$", "") + ".archive"));
+            if (ARCHIVE_AFTER_DAYS != null) {
+                autoArchive(LocalDate.now().minusDays(ARCHIVE_AFTER_DAYS));
+            }
+        }
+
+        private void autoArchive(LocalDate before) {
+            try {
+                if (!archiveDone(before).isEmpty()) {
+                    storage.overwrite(tasks);
+                }
+            } catch (IOException | FileLoadingException e) {
+                System.out.println("An error occurred.");
+            }
+        }
+
+        /**
+         * Moves done tasks from the list to the archive. If the archive cannot be written, the list is left as it was.
+         *
+         * @param before if not null, only done deadlines and events dated before this day are moved.
+         * @return stored lines of the archived tasks.
+         * @throws IOException if the archive cannot be written.
+         */
+        public List<String> archiveDone(LocalDate before) throws IOException {
+            Change original = tasks.restorePoint();
+            List<String> done = tasks.removeDone(before);
+            try {
+                archive.append(done, LocalDate.now());
+            } catch (IOException e) {
+                tasks.apply(original);
+                throw e;
+            }
+            return done;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Storage getStorage() {
+            return storage;
+        }
+
+        public TaskList getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Returns the archived tasks containing the keyword.
+         *
+         * @param keyword word to look for.
+         * @return matching archived lines, each starting with the day the task was archived.
+         * @throws IOException if the archive cannot be read.
+         */
+        public List<String> findArchived(String keyword) throws IOException {
+            return archive.find(keyword);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package duke.exception;
+
+/**
+ * Represents malformed archive command error
+ */
+public class InvalidArchiveException extends DukeException {
+    public InvalidArchiveException() {
+        super("WOOF! Kyle archives done tasks with archive, or archive /before YYYY-MM-DD, Boss!");
+    }
+}
@@ -0,0 +1,10 @@
+package duke.exception;
+
+/**
+ * Represents invalid number of tasks to show error
+ */
+public class InvalidCountException extends DukeException {
+    public InvalidCountException() {
+        super("WOOF! Kyle needs a number of tasks to show, Boss! Try next or next 10");
+    }
+}
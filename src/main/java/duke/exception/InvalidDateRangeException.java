@@ -0,0 +1,10 @@
+package duke.exception;
+
+/**
+ * Represents invalid date range error
+ */
+public class InvalidDateRangeException extends DukeException {
+    public InvalidDateRangeException() {
+        super("WOOF! Boss, Kyle needs the range as YYYY-MM-DD YYYY-MM-DD, with the first day not after the last!");
+    }
+}
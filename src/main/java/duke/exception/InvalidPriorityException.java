@@ -0,0 +1,11 @@
+package duke.exception;
+
+/**
+ * Represents invalid priority or effort error
+ */
+public class InvalidPriorityException extends DukeException {
+    public InvalidPriorityException() {
+        super("WOOF! Kyle cannot tell how urgent or how big that is! Use /priority high|medium|low "
+                + "and /effort like 30m, 2h or 1h30m");
+    }
+}
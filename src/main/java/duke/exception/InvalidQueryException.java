@@ -0,0 +1,11 @@
+package duke.exception;
+
+/**
+ * Represents malformed list query error
+ */
+public class InvalidQueryException extends DukeException {
+    public InvalidQueryException() {
+        super("WOOF! Kyle does not get that query, Boss! Try something like "
+                + "list /type D /done no /before YYYY-MM-DD /sort date /limit 20");
+    }
+}
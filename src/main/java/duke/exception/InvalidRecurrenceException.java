@@ -0,0 +1,11 @@
+package duke.exception;
+
+/**
+ * Represents invalid recurrence rule error
+ */
+public class InvalidRecurrenceException extends DukeException {
+    public InvalidRecurrenceException() {
+        super("WOOF! Kyle cannot understand how often it repeats! Use /every day|week|month, "
+                + "optionally followed by /until YYYY-MM-DD or /times N");
+    }
+}
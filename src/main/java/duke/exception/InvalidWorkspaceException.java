@@ -0,0 +1,11 @@
+package duke.exception;
+
+/**
+ * Represents malformed workspace name error
+ */
+public class InvalidWorkspaceException extends DukeException {
+    public InvalidWorkspaceException() {
+        super("WOOF! Kyle cannot name a list like that, Boss! Use letters, digits, - and _ only, "
+                + "e.g. use work");
+    }
+}
@@ -3,6 +3,8 @@ package duke.task;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Iterator;
 
 import duke.exception.InvalidDeadlineDateException;
 
@@ -10,7 +12,9 @@ import duke.exception.InvalidDeadlineDateException;
  * Represents deadlines
  */
 public class Deadline extends Task {
+    private static final DateTimeFormatter dayFormat = DateTimeFormatter.ofPattern("MMM d yyyy");
     private LocalDate day;
+    private Recurrence recurrence;
 
     /**
      * Initializes a new Deadline object
@@ -24,6 +28,19 @@ public class Deadline extends Task {
         this.day = day;
     }
 
+    /**
+     * Initializes a new Deadline object that may repeat
+     * @param type of task
+     * @param detail of Deadline
+     * @param marked whether deadline is marked or not
+     * @param day of deadline (the first one if it repeats)
+     * @param recurrence how the deadline repeats, null if it does not
+     */
+    public Deadline(String type, String detail, boolean marked, LocalDate day, Recurrence recurrence) {
+        this(type, detail, marked, day);
+        this.recurrence = recurrence;
+    }
+
     /**
      * Initialize a new Deadline object
      * @param type of task
@@ -39,6 +56,61 @@ public class Deadline extends Task {
         }
     }
 
+    /**
+     * Initialize a new Deadline object that may repeat
+     * @param type of task
+     * @param detail of deadline
+     * @param day of deadline (the first one if it repeats)
+     * @param recurrence how the deadline repeats, null if it does not
+     */
+    public Deadline(String type, String detail, String day, Recurrence recurrence)
+            throws InvalidDeadlineDateException {
+        this(type, detail, day);
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Returns the deadline stored in the data file, the reverse of {@link #toString()}.
+     *
+     * @param rest the stored line without the leading "[D][ ] ".
+     * @param marked whether deadline is marked or not.
+     * @return deadline, or null if the line is not a deadline.
+     */
+    static Deadline fromString(String rest, boolean marked) {
+        int byIndex = rest.lastIndexOf(" (by: ");
+        if (byIndex < 0 || !rest.endsWith(")")) {
+            return null;
+        }
+        int ruleIndex = rest.indexOf(") (every ", byIndex);
+        int dayEnd = ruleIndex < 0 ? rest.length() - 1 : ruleIndex;
+        try {
+            LocalDate day = LocalDate.parse(rest.substring(byIndex + 6, dayEnd), dayFormat);
+            Recurrence recurrence = ruleIndex < 0 ? null
+                    : Recurrence.fromString(rest.substring(ruleIndex + 3, rest.length() - 1));
+            return new Deadline("D", rest.substring(0, byIndex), marked, day, recurrence);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    @Override
+    public Iterator<LocalDate> occurrences(LocalDate from, LocalDate to) {
+        if (recurrence != null) {
+            return recurrence.occurrences(day, from, to);
+        } else if (day.isBefore(from) || day.isAfter(to)) {
+            return Collections.emptyIterator();
+        }
+        return Collections.singletonList(day).iterator();
+    }
+
     /**
      * Returns deadline printed out properly.
      *
@@ -46,12 +118,11 @@ public class Deadline extends Task {
      */
     @Override
     public String toString() {
+        String rule = (recurrence == null ? "" : " (" + recurrence + ")") + plan();
         if (marked) {
-            return "[D][X] " + super.detail + " (by: " + this.day.format(DateTimeFormatter
-                    .ofPattern("MMM d yyyy")) + ")";
+            return "[D][X] " + super.detail + " (by: " + this.day.format(dayFormat) + ")" + rule;
         } else {
-            return "[D][ ] " + super.detail + " (by: " + this.day.format(DateTimeFormatter
-                    .ofPattern("MMM d yyyy")) + ")";
+            return "[D][ ] " + super.detail + " (by: " + this.day.format(dayFormat) + ")" + rule;
         }
     }
 }
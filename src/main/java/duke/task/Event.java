@@ -1,7 +1,12 @@
 package duke.task;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Iterator;
 
 import duke.exception.InvalidEventDateTimeException;
 
@@ -10,8 +15,10 @@ import duke.exception.InvalidEventDateTimeException;
  * Represents Event class
  */
 public class Event extends Task {
+    private static final DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("MMM dd yyyy hh:mm a");
     private LocalDateTime start;
     private LocalDateTime end;
+    private Recurrence recurrence;
 
     /**
      * Initializes a new Event object
@@ -49,6 +56,117 @@ public class Event extends Task {
         }
     }
 
+    /**
+     * Initializes a new Event object that may repeat
+     * @param type of task
+     * @param detail of event
+     * @param start starting day of event (the first one if it repeats)
+     * @param end ending day of event (the first one if it repeats)
+     * @param recurrence how the event repeats, null if it does not
+     */
+    public Event(String type, String detail, String start, String end, Recurrence recurrence)
+            throws InvalidEventDateTimeException {
+        this(type, detail, start, end);
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Initializes a new Event object from parsed times
+     * @param type of task
+     * @param detail of event
+     * @param marked whether event is marked or not
+     * @param start starting time of event (the first one if it repeats)
+     * @param end ending time of event (the first one if it repeats)
+     * @param recurrence how the event repeats, null if it does not
+     */
+    public Event(String type, String detail, boolean marked, LocalDateTime start, LocalDateTime end,
+            Recurrence recurrence) {
+        super(type, detail, marked);
+        this.start = start;
+        this.end = end;
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Returns the event stored in the data file, the reverse of {@link #toString()}.
+     *
+     * @param rest the stored line without the leading "[E][ ] ".
+     * @param marked whether event is marked or not.
+     * @return event, or null if the line is not an event.
+     */
+    static Event fromString(String rest, boolean marked) {
+        int fromIndex = rest.lastIndexOf(" (from: ");
+        int toIndex = rest.indexOf(" to: ", Math.max(fromIndex, 0));
+        if (fromIndex < 0 || toIndex < 0 || !rest.endsWith(")")) {
+            return null;
+        }
+        int ruleIndex = rest.indexOf(") (every ", toIndex);
+        int endEnd = ruleIndex < 0 ? rest.length() - 1 : ruleIndex;
+        try {
+            LocalDateTime start = LocalDateTime.parse(rest.substring(fromIndex + 8, toIndex), timeFormat);
+            LocalDateTime end = LocalDateTime.parse(rest.substring(toIndex + 5, endEnd), timeFormat);
+            Recurrence recurrence = ruleIndex < 0 ? null
+                    : Recurrence.fromString(rest.substring(ruleIndex + 3, rest.length() - 1));
+            return new Event("E", rest.substring(0, fromIndex), marked, start, end, recurrence);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Returns how long each occurrence of the event lasts.
+     *
+     * @return duration between start and end.
+     */
+    public Duration getDuration() {
+        return Duration.between(start, end);
+    }
+
+    /**
+     * Returns the days on which an occurrence of the event is happening between from and to, one per
+     * occurrence. An occurrence that began before the window but is still going on in it counts on from.
+     *
+     * @param from first day of the window.
+     * @param to last day of the window.
+     * @return iterator over the days in order.
+     */
+    @Override
+    public Iterator<LocalDate> occurrences(LocalDate from, LocalDate to) {
+        LocalDate day = start.toLocalDate();
+        long spanDays = ChronoUnit.DAYS.between(day, end.toLocalDate());
+        if (recurrence == null) {
+            if (day.isAfter(to) || day.plusDays(spanDays).isBefore(from)) {
+                return Collections.emptyIterator();
+            }
+            return Collections.singletonList(day.isBefore(from) ? from : day).iterator();
+        }
+        Iterator<LocalDate> starts = recurrence.occurrences(day, from.minusDays(spanDays), to);
+        return new Iterator<LocalDate>() {
+            @Override
+            public boolean hasNext() {
+                return starts.hasNext();
+            }
+
+            @Override
+            public LocalDate next() {
+                LocalDate next = starts.next();
+                return next.isBefore(from) ? from : next;
+            }
+        };
+    }
+
 
     /**
      * Returns event printed out properly.
@@ -57,18 +175,15 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
+        String rule = (recurrence == null ? "" : " (" + recurrence + ")") + plan();
         if (marked) {
             return "[E][X] " + super.detail + " (from: "
-                    + this.start.format(DateTimeFormatter
-                    .ofPattern("MMM dd yyyy hh:mm a"))
-                    + " to: " + this.end.format(DateTimeFormatter
-                    .ofPattern("MMM dd yyyy hh:mm a")) + ")";
+                    + this.start.format(timeFormat)
+                    + " to: " + this.end.format(timeFormat) + ")" + rule;
         } else {
             return "[E][ ] " + super.detail + " (from: "
-                    + this.start.format(DateTimeFormatter
-                    .ofPattern("MMM dd yyyy hh:mm a"))
-                    + " to: " + this.end.format(DateTimeFormatter
-                    .ofPattern("MMM dd yyyy hh:mm a")) + ")";
+                    + this.start.format(timeFormat)
+                    + " to: " + this.end.format(timeFormat) + ")" + rule;
         }
     }
 }
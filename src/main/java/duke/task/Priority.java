@@ -0,0 +1,53 @@
+package duke.task;
+
+import java.util.Locale;
+
+/**
+ * Represents how much a task matters, shown in its stored line as e.g. "{high}". Tasks without a priority
+ * come after low ones.
+ */
+public enum Priority {
+    HIGH,
+    MEDIUM,
+    LOW;
+
+    /**
+     * Returns the priority written by the user or stored in a line.
+     *
+     * @param word "high", "medium" or "low", their first letter, or 1 to 3.
+     * @return matching priority, or null if there is none.
+     */
+    public static Priority parse(String word) {
+        switch (word.toLowerCase(Locale.ROOT)) {
+        case "high":
+        case "h":
+        case "1":
+            return HIGH;
+        case "medium":
+        case "m":
+        case "2":
+            return MEDIUM;
+        case "low":
+        case "l":
+        case "3":
+            return LOW;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Returns the rank used to order tasks, 0 for high up to 3 for no priority.
+     *
+     * @param priority priority of a task, or null if it has none.
+     * @return rank, lower first.
+     */
+    public static int rank(Priority priority) {
+        return priority == null ? values().length : priority.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
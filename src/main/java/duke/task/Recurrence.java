@@ -0,0 +1,248 @@
+package duke.task;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import duke.exception.InvalidRecurrenceException;
+
+/**
+ * Represents a repeating rule of a deadline or an event.
+ * Only the rule is kept, occurrences are worked out lazily for a given window.
+ */
+public class Recurrence {
+    private static final DateTimeFormatter untilFormat = DateTimeFormatter.ofPattern("MMM d yyyy");
+
+    /**
+     * How often a task repeats
+     */
+    public enum Frequency {
+        DAILY("day"),
+        WEEKLY("week"),
+        MONTHLY("month");
+
+        private final String unit;
+
+        Frequency(String unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Returns the frequency of the given word, such as "week" or "weekly".
+         * @param word word given by user
+         * @return matching frequency
+         * @throws InvalidRecurrenceException if the word is not a known frequency
+         */
+        public static Frequency fromWord(String word) throws InvalidRecurrenceException {
+            for (Frequency f : values()) {
+                if (word.equalsIgnoreCase(f.unit) || word.equalsIgnoreCase(f.name())) {
+                    return f;
+                }
+            }
+            throw new InvalidRecurrenceException();
+        }
+
+        /**
+         * Returns whether the characters between start and end name this frequency, ignoring case.
+         * @param s text holding the word
+         * @param start index of the first character of the word
+         * @param end index after the last character of the word
+         * @return true if the word is this frequency
+         */
+        public boolean matches(CharSequence s, int start, int end) {
+            return regionMatches(s, start, end, unit) || regionMatches(s, start, end, name());
+        }
+
+        private static boolean regionMatches(CharSequence s, int start, int end, String word) {
+            if (end - start != word.length()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (Character.toLowerCase(s.charAt(start + i)) != Character.toLowerCase(word.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Frequency frequency;
+    private final LocalDate until;
+    private final int count;
+
+    /**
+     * Initializes a new Recurrence object
+     * @param frequency how often the task repeats
+     * @param until last day an occurrence may fall on, null if not bounded by date
+     * @param count maximum number of occurrences, 0 if not bounded by count
+     */
+    public Recurrence(Frequency frequency, LocalDate until, int count) {
+        this.frequency = frequency;
+        this.until = until;
+        this.count = count;
+    }
+
+    /**
+     * Returns a recurrence from the words of the user's command,
+     * e.g. {@code /every week /until 2026-12-31} or {@code /every month /times 6}.
+     *
+     * @param arr input array of the user.
+     * @param everyIndex index of "/every" in the array.
+     * @return recurrence described by the command.
+     * @throws InvalidRecurrenceException if the rule is incomplete or malformed.
+     */
+    public static Recurrence parse(String[] arr, int everyIndex) throws InvalidRecurrenceException {
+        if (everyIndex + 1 >= arr.length) {
+            throw new InvalidRecurrenceException();
+        }
+        Frequency frequency = Frequency.fromWord(arr[everyIndex + 1]);
+        if (everyIndex + 2 >= arr.length) {
+            return new Recurrence(frequency, null, 0);
+        }
+        if (everyIndex + 3 >= arr.length) {
+            throw new InvalidRecurrenceException();
+        }
+        String flag = arr[everyIndex + 2];
+        String value = arr[everyIndex + 3];
+        try {
+            if (flag.equals("/until")) {
+                return new Recurrence(frequency, LocalDate.parse(value), 0);
+            } else if (flag.equals("/times")) {
+                int times = Integer.parseInt(value);
+                if (times < 1) {
+                    throw new InvalidRecurrenceException();
+                }
+                return new Recurrence(frequency, null, times);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidRecurrenceException();
+        }
+        throw new InvalidRecurrenceException();
+    }
+
+    /**
+     * Returns the recurrence stored in the data file, the reverse of {@link #toString()}.
+     *
+     * @param s rule in the form "every week", "every week until Dec 31 2026" or "every week, 6 times".
+     * @return recurrence, or null if the string is not a rule.
+     */
+    public static Recurrence fromString(String s) {
+        String[] words = s.split(" ");
+        if (words.length < 2 || !words[0].equals("every")) {
+            return null;
+        }
+        try {
+            Frequency frequency = Frequency.fromWord(words[1].replace(",", ""));
+            if (words.length >= 6 && words[2].equals("until")) {
+                LocalDate until = LocalDate.parse(words[3] + " " + words[4] + " " + words[5], untilFormat);
+                return new Recurrence(frequency, until, 0);
+            } else if (words.length >= 4 && words[3].equals("times")) {
+                return new Recurrence(frequency, null, Integer.parseInt(words[2]));
+            }
+            return new Recurrence(frequency, null, 0);
+        } catch (InvalidRecurrenceException | DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the n-th occurrence (counting from 0) of a task that first happens on the given day.
+     * Monthly occurrences are always counted from the first day, so a rule starting on the 31st
+     * falls on the last day of shorter months without drifting.
+     *
+     * @param first day of the first occurrence.
+     * @param n index of the occurrence.
+     * @return day of the n-th occurrence.
+     */
+    public LocalDate occurrence(LocalDate first, long n) {
+        switch (frequency) {
+        case DAILY:
+            return first.plusDays(n);
+        case WEEKLY:
+            return first.plusWeeks(n);
+        default:
+            return first.plusMonths(n);
+        }
+    }
+
+    private boolean isWithinRule(LocalDate day, long n) {
+        if (count > 0 && n >= count) {
+            return false;
+        }
+        return until == null || !day.isAfter(until);
+    }
+
+    private long firstIndexOnOrAfter(LocalDate first, LocalDate from) {
+        if (!from.isAfter(first)) {
+            return 0;
+        }
+        long n;
+        switch (frequency) {
+        case DAILY:
+            n = ChronoUnit.DAYS.between(first, from);
+            break;
+        case WEEKLY:
+            n = ChronoUnit.WEEKS.between(first, from);
+            break;
+        default:
+            n = ChronoUnit.MONTHS.between(first, from);
+            break;
+        }
+        while (occurrence(first, n).isBefore(from)) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the occurrences falling between from and to (both inclusive).
+     * Days are generated one at a time as the iterator is consumed, nothing is stored.
+     *
+     * @param first day of the first occurrence.
+     * @param from first day of the window.
+     * @param to last day of the window.
+     * @return iterator over the days of the occurrences in order.
+     */
+    public Iterator<LocalDate> occurrences(LocalDate first, LocalDate from, LocalDate to) {
+        long start = firstIndexOnOrAfter(first, from);
+        return new Iterator<LocalDate>() {
+            private long n = start;
+            private LocalDate next = occurrence(first, start);
+
+            @Override
+            public boolean hasNext() {
+                return !next.isAfter(to) && isWithinRule(next, n);
+            }
+
+            @Override
+            public LocalDate next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LocalDate current = next;
+                n++;
+                next = occurrence(first, n);
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Returns recurrence printed out properly.
+     *
+     * @return recurrence rule in words.
+     */
+    @Override
+    public String toString() {
+        String rule = "every " + frequency.unit;
+        if (until != null) {
+            return rule + " until " + until.format(untilFormat);
+        } else if (count > 0) {
+            return rule + ", " + count + " times";
+        }
+        return rule;
+    }
+}
@@ -1,5 +1,13 @@
 package duke.task;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Represent tasks
  */
@@ -7,6 +15,8 @@ public class Task {
     protected String type;
     protected String detail;
     protected boolean marked;
+    protected Priority priority;
+    protected Duration effort;
 
     /**
      * Intializes a new Task object
@@ -33,6 +43,194 @@ public class Task {
     }
 
 
+    /**
+     * Returns the task stored in the data file, the reverse of {@link #toString()}.
+     * Falls back to a plain task if the line cannot be read as a deadline or event.
+     *
+     * @param s stored line such as "[D][X] detail (by: Feb 12 2020)".
+     * @return task represented by the line.
+     */
+    public static Task fromString(String s) {
+        int planIndex = s.endsWith("}") ? s.lastIndexOf(" {") : -1;
+        if (planIndex > 6) {
+            Task task = fromString(s.substring(0, planIndex));
+            if (task.readPlan(s.substring(planIndex + 2, s.length() - 1))) {
+                return task;
+            }
+        }
+        String type = String.valueOf(s.charAt(1));
+        boolean marked = s.charAt(4) == 'X';
+        String rest = s.substring(7);
+        Task task = null;
+        if (type.equals("D")) {
+            task = Deadline.fromString(rest, marked);
+        } else if (type.equals("E")) {
+            task = Event.fromString(rest, marked);
+        } else if (type.equals("T")) {
+            task = new Todo(type, rest, marked);
+        }
+        return task == null ? new Task(type, rest, marked) : task;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public Duration getEffort() {
+        return effort;
+    }
+
+    public void setEffort(Duration effort) {
+        this.effort = effort;
+    }
+
+    /**
+     * Returns the priority and effort as shown at the end of the stored line, e.g. " {high, 2h}".
+     *
+     * @return the shown priority and effort, or "" if the task has neither.
+     */
+    protected String plan() {
+        if (priority == null && effort == null) {
+            return "";
+        } else if (effort == null) {
+            return " {" + priority + "}";
+        } else if (priority == null) {
+            return " {" + formatEffort(effort) + "}";
+        }
+        return " {" + priority + ", " + formatEffort(effort) + "}";
+    }
+
+    /**
+     * Sets the priority and effort from the inside of the braces at the end of a stored line.
+     *
+     * @return false if the text is not a priority and effort, leaving the task as it was.
+     */
+    private boolean readPlan(String text) {
+        Priority readPriority = null;
+        Duration readEffort = null;
+        for (String part : text.split(", ", -1)) {
+            Priority p = Priority.parse(part);
+            Duration e = p == null ? parseEffort(part) : null;
+            if (p != null && readPriority == null && readEffort == null) {
+                readPriority = p;
+            } else if (e != null && readEffort == null) {
+                readEffort = e;
+            } else {
+                return false;
+            }
+        }
+        priority = readPriority;
+        effort = readEffort;
+        return true;
+    }
+
+    /**
+     * Returns the effort written as hours and minutes, e.g. "2h", "30m" or "1h30m".
+     *
+     * @param text effort as written.
+     * @return positive effort, or null if the text is not one.
+     */
+    public static Duration parseEffort(String text) {
+        int hours = 0;
+        int minutes = 0;
+        int number = -1;
+        boolean hasHours = false;
+        boolean hasMinutes = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9' && number < 100_000) {
+                number = Math.max(number, 0) * 10 + (c - '0');
+            } else if ((c == 'h' || c == 'H') && number >= 0 && !hasHours && !hasMinutes) {
+                hours = number;
+                hasHours = true;
+                number = -1;
+            } else if ((c == 'm' || c == 'M') && number >= 0 && !hasMinutes) {
+                minutes = number;
+                hasMinutes = true;
+                number = -1;
+            } else {
+                return null;
+            }
+        }
+        if (number >= 0 || !hasHours && !hasMinutes || hours == 0 && minutes == 0) {
+            return null;
+        }
+        return Duration.ofHours(hours).plusMinutes(minutes);
+    }
+
+    /**
+     * Returns the effort as written by {@link #parseEffort(String)}, e.g. "1h30m".
+     *
+     * @param effort positive effort.
+     * @return effort in hours and minutes.
+     */
+    public static String formatEffort(Duration effort) {
+        long hours = effort.toHours();
+        long minutes = effort.toMinutesPart();
+        if (hours == 0) {
+            return minutes + "m";
+        }
+        return minutes == 0 ? hours + "h" : hours + "h" + minutes + "m";
+    }
+
+    /**
+     * Returns the tags of this task, the words of its detail that start with #, e.g. "ops" for "restart db #ops".
+     *
+     * @return tags in lower case, in the order they first appear.
+     */
+    public List<String> getTags() {
+        return tagsOf(detail);
+    }
+
+    /**
+     * Returns the tags in the given text. A tag is a # at the start of a word followed by letters, digits,
+     * - or _, and tags differing only in case are the same tag.
+     *
+     * @param text detail or stored line of a task.
+     * @return tags in lower case, without the #, each once, in the order they first appear.
+     */
+    public static List<String> tagsOf(CharSequence text) {
+        List<String> tags = new ArrayList<>();
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            if (text.charAt(i) != '#' || i > 0 && !Character.isWhitespace(text.charAt(i - 1))) {
+                continue;
+            }
+            int end = i + 1;
+            while (end < n && isTagChar(text.charAt(end))) {
+                end++;
+            }
+            if (end > i + 1) {
+                String tag = text.subSequence(i + 1, end).toString().toLowerCase(Locale.ROOT);
+                if (!tags.contains(tag)) {
+                    tags.add(tag);
+                }
+            }
+            i = end - 1;
+        }
+        return tags;
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+
+    /**
+     * Returns the days on which this task falls between from and to (both inclusive).
+     * Tasks without a date never fall in any window.
+     *
+     * @param from first day of the window.
+     * @param to last day of the window.
+     * @return iterator over the days in order.
+     */
+    public Iterator<LocalDate> occurrences(LocalDate from, LocalDate to) {
+        return Collections.emptyIterator();
+    }
+
     /**
      * Marks task as done.
      *
@@ -54,9 +252,9 @@ public class Task {
     @Override
     public String toString() {
         if (marked) {
-            return "[" + this.type + "][X] " + this.detail;
+            return "[" + this.type + "][X] " + this.detail + plan();
         } else {
-            return "[" + this.type + "][ ] " + this.detail;
+            return "[" + this.type + "][ ] " + this.detail + plan();
         }
     }
 }
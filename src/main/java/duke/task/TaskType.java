@@ -0,0 +1,35 @@
+package duke.task;
+
+/**
+ * Represents the kinds of task, each shown by a one-letter code such as the "D" in "[D][ ]".
+ */
+public enum TaskType {
+    TODO('T'),
+    DEADLINE('D'),
+    EVENT('E');
+
+    private final char code;
+
+    TaskType(char code) {
+        this.code = code;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the type shown by the given letter.
+     *
+     * @param code letter such as 'T', 'D' or 'E'.
+     * @return matching type, or null if there is none.
+     */
+    public static TaskType fromCode(char code) {
+        for (TaskType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
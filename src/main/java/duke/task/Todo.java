@@ -29,9 +29,9 @@ public class Todo extends Task {
     @Override
     public String toString() {
         if (marked) {
-            return "[T][X] " + super.detail;
+            return "[T][X] " + super.detail + plan();
         } else {
-            return "[T][ ] " + super.detail;
+            return "[T][ ] " + super.detail + plan();
         }
     }
 }
@@ -0,0 +1,26 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactTaskStoreTest {
+    @Test
+    public void remove_mostTasks_compactsArenaAndKeepsRemainingText() {
+        CompactTaskStore store = new CompactTaskStore();
+        for (int i = 0; i < 20000; i++) {
+            store.add("[D][ ] task number " + i + "  (by: Feb 12 2020)", i);
+        }
+        long full = store.arenaBytes();
+        for (int i = 19999; i >= 0; i--) {
+            if (i % 10 != 0) {
+                store.remove(i);
+            }
+        }
+        assertEquals(2000, store.size());
+        assertTrue(store.arenaBytes() < full / 2, "text of removed tasks was kept: " + store.arenaBytes());
+        assertEquals("[D][ ] task number 19990  (by: Feb 12 2020)", store.get(1999));
+        assertEquals(19990, store.id(1999));
+    }
+}
@@ -0,0 +1,34 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CompletionTrieTest {
+    @Test
+    public void complete_prefix_returnsMostFrequentFirst() {
+        CompletionTrie trie = new CompletionTrie(2);
+        trie.add("book");
+        trie.add("boss");
+        trie.add("boss");
+        trie.add("bottle");
+        trie.add("cook");
+        assertEquals(List.of("boss", "book"), trie.complete("bo"));
+        assertEquals(List.of("bottle"), trie.complete("bott"));
+        assertEquals(List.of(), trie.complete("bx"));
+    }
+
+    @Test
+    public void remove_lastOccurrence_dropsWordAndRefillsSuggestions() {
+        CompletionTrie trie = new CompletionTrie(2);
+        trie.add("book");
+        trie.add("boss");
+        trie.add("bottle");
+        trie.remove("book");
+        trie.remove("boss");
+        assertEquals(List.of("bottle"), trie.complete("bo"));
+        assertEquals(List.of(), trie.complete("boo"));
+    }
+}
@@ -0,0 +1,89 @@
+package duke.command;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import duke.exception.InvalidDeadlineDateException;
+import duke.task.Deadline;
+import duke.task.Todo;
+
+/**
+ * Compares the heap used by a task list stored as rendered Strings with the same tasks held in a
+ * {@link CompactTaskStore}, and in a whole {@link TaskList}: the store together with the sorted views, tag index,
+ * urgency heap and status index it keeps for every task.
+ * Run with {@code gradlew footprintBenchmark}, optionally passing the number of tasks and of distinct details.
+ */
+public class FootprintBenchmark {
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2026-01-01");
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args number of tasks (default 1,000,000) and number of distinct details (default 5,000).
+     */
+    public static void main(String[] args) throws InvalidDeadlineDateException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+        long base = usedHeap();
+        String[] strings = new String[n];
+        for (int i = 0; i < n; i++) {
+            strings[i] = task(i, distinct);
+        }
+        long stringBytes = usedHeap() - base;
+        report("String[] lines", stringBytes, n);
+        strings = null;
+
+        base = usedHeap();
+        CompactTaskStore store = new CompactTaskStore();
+        for (int i = 0; i < n; i++) {
+            store.add(task(i, distinct), i);
+        }
+        long compactBytes = usedHeap() - base;
+        report("compact store", compactBytes, n);
+        System.out.printf("compact store uses %.1f%% of the String layout%n", 100.0 * compactBytes / stringBytes);
+        if (store.size() != n || !store.get(n - 1).equals(task(n - 1, distinct))) {
+            throw new AssertionError("compact store does not render the tasks it was given");
+        }
+        store = null;
+
+        base = usedHeap();
+        String[] lines = new String[n];
+        for (int i = 0; i < n; i++) {
+            lines[i] = task(i, distinct);
+        }
+        TaskList tasks = new TaskList(lines);
+        lines = null;
+        long listBytes = usedHeap() - base;
+        report("TaskList with its indexes", listBytes, n);
+        System.out.printf("TaskList uses %.1f%% of the String layout%n", 100.0 * listBytes / stringBytes);
+        if (tasks.getValidLen() != n) {
+            throw new AssertionError("task list does not hold the tasks it was given");
+        }
+    }
+
+    /**
+     * Returns the i-th generated task line, as {@link TaskList#add} would have stored it.
+     * Details repeat every {@code distinct} tasks and deadlines fall within one year.
+     */
+    private static String task(int i, int distinct) throws InvalidDeadlineDateException {
+        Random random = new Random(i);
+        String detail = "task number " + (i % distinct) + " ";
+        if (random.nextBoolean()) {
+            return new Todo("T", detail, random.nextInt(4) == 0).toString();
+        }
+        return new Deadline("D", detail, random.nextInt(4) == 0, FIRST_DAY.plusDays(random.nextInt(365))).toString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String layout, long bytes, int n) {
+        System.out.printf("%-28s %,14d bytes  %6.1f bytes/task%n", layout, bytes, (double) bytes / n);
+    }
+}
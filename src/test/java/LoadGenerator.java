@@ -0,0 +1,161 @@
+package duke;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a repeatable session of commands: N tasks are added first, followed by M operations
+ * drawn from a weighted mix such as {@code add:30,mark:20,find:20,delete:15,undo:10,list:5}.
+ * The generator keeps track of how many tasks there should be, so marks and deletes point at real tasks.
+ */
+public class LoadGenerator {
+    static final String DEFAULT_MIX = "add:30,mark:20,find:20,delete:15,undo:10,list:5";
+
+    private static final String[] WORDS = {"book", "rent", "gym", "meeting", "report", "minions", "groceries", "call"};
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2026-01-01");
+
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private final Random random;
+    private int size;
+    private int sizeBeforeLast = -1;
+
+    /**
+     * Initializes a new LoadGenerator object
+     * @param mix weighted operations, e.g. "add:30,mark:20,find:20,delete:15,undo:10,list:5"
+     * @param seed seed of the random choices, so the same arguments give the same session
+     */
+    public LoadGenerator(String mix, long seed) {
+        this.mix = parseMix(mix);
+        this.totalWeight = this.mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.random = new Random(seed);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            switch (pair[0]) {
+            case "add":
+            case "mark":
+            case "unmark":
+            case "find":
+            case "delete":
+            case "undo":
+            case "list":
+                weights.put(pair[0], Integer.parseInt(pair[1]));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation in mix: " + pair[0]);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the commands that add the first tasks.
+     *
+     * @param tasks number of tasks to add.
+     * @return add commands.
+     */
+    public List<String> setup(int tasks) {
+        List<String> commands = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            commands.add(add());
+        }
+        sizeBeforeLast = -1;
+        return commands;
+    }
+
+    /**
+     * Returns the operations to measure.
+     *
+     * @param operations number of operations.
+     * @return commands drawn from the mix.
+     */
+    public List<String> operations(int operations) {
+        List<String> commands = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            commands.add(next());
+        }
+        return commands;
+    }
+
+    private String next() {
+        int pick = random.nextInt(totalWeight);
+        String op = null;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                op = entry.getKey();
+                break;
+            }
+        }
+        if (size == 0 && !op.equals("find") && !op.equals("list")) {
+            op = "add";
+        }
+        switch (op) {
+        case "add":
+            return add();
+        case "mark":
+        case "unmark":
+            sizeBeforeLast = size;
+            return op + " " + (random.nextInt(size) + 1);
+        case "delete":
+            sizeBeforeLast = size;
+            size--;
+            return "delete " + (random.nextInt(size + 1) + 1);
+        case "undo":
+            if (sizeBeforeLast >= 0) {
+                int current = size;
+                size = sizeBeforeLast;
+                sizeBeforeLast = current;
+            }
+            return "undo";
+        case "find":
+            return "find " + WORDS[random.nextInt(WORDS.length)];
+        default:
+            return "list";
+        }
+    }
+
+    private String add() {
+        sizeBeforeLast = size;
+        size++;
+        String detail = WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(1000);
+        LocalDate day = FIRST_DAY.plusDays(random.nextInt(365));
+        switch (random.nextInt(3)) {
+        case 0:
+            return "todo " + detail;
+        case 1:
+            return "deadline " + detail + " /by " + day;
+        default:
+            return "event " + detail + " /from " + day + " 0900 /to " + day + " 1700";
+        }
+    }
+
+    /**
+     * Prints a session to standard output, ending with "bye", so it can be piped into Duke.
+     *
+     * @param args number of tasks (default 1,000), number of operations (default 10,000), mix and seed.
+     */
+    public static void main(String[] args) {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        String mix = args.length > 2 ? args[2] : DEFAULT_MIX;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        LoadGenerator generator = new LoadGenerator(mix, seed);
+        StringBuilder out = new StringBuilder();
+        for (String command : generator.setup(tasks)) {
+            out.append(command).append('\n');
+        }
+        for (String command : generator.operations(operations)) {
+            out.append(command).append('\n');
+        }
+        System.out.print(out.append("bye\n"));
+    }
+}
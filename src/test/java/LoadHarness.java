@@ -0,0 +1,259 @@
+package duke;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Drives Duke with a session from {@link LoadGenerator} and reports how fast it answers.
+ * In {@code response} mode every operation goes through {@link Duke#getResponse(String)}, as the GUI does,
+ * and each one is timed on its own. In {@code cli} mode the whole session is piped into a fresh
+ * {@code duke.Duke} process, as text-ui-test does, and only the overall rate is known. {@code piped} mode pipes
+ * a session of commands that change the list, by default {@value #PIPED_MIX}, and then one with
+ * {@code --scale} times as many tasks and operations; it fails if the longer session runs at less than half the
+ * rate of the shorter, since each such command should cost the same however long the list is.
+ * The results are checked against a baseline recorded on this machine in {@code build/load-baseline.properties};
+ * the run fails when throughput drops, or the 99th percentile grows, by more than the tolerance. Absolute
+ * figures only mean something on the machine that measured them, so no baseline is checked in: the first run
+ * of a configuration records one, and {@code --update-baseline} records it again.
+ *
+ * <p>Run with {@code gradlew loadTest}, passing options such as
+ * {@code --args="--mode response --tasks 1000 --ops 10000 --mix add:50,find:50 --update-baseline"}.
+ */
+public class LoadHarness {
+    private static final Path DEFAULT_BASELINE = Paths.get("build", "load-baseline.properties");
+    static final String PIPED_MIX = "add:40,mark:25,unmark:15,delete:10,undo:10";
+
+    /**
+     * Runs the harness.
+     *
+     * @param args options: --mode response|cli|piped, --tasks N, --ops M, --mix, --seed, --tolerance, --scale,
+     *     --baseline PATH and --update-baseline.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        String mode = options.getOrDefault("mode", "response");
+        int tasks = Integer.parseInt(options.getOrDefault("tasks", "1000"));
+        int ops = Integer.parseInt(options.getOrDefault("ops", "10000"));
+        String mix = options.getOrDefault("mix", mode.equals("piped") ? PIPED_MIX : LoadGenerator.DEFAULT_MIX);
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.25"));
+        Path baselinePath = options.containsKey("baseline") ? Paths.get(options.get("baseline")) : DEFAULT_BASELINE;
+
+        LoadGenerator generator = new LoadGenerator(mix, seed);
+        List<String> setup = generator.setup(tasks);
+        List<String> operations = generator.operations(ops);
+        Result result;
+        if (mode.equals("cli")) {
+            result = runCli(setup, operations);
+        } else if (mode.equals("piped")) {
+            result = runCli(setup, operations);
+            int scale = Integer.parseInt(options.getOrDefault("scale", "4"));
+            LoadGenerator scaled = new LoadGenerator(mix, seed);
+            Result longer = runCli(scaled.setup(tasks * scale), scaled.operations(ops * scale));
+            System.out.printf("%d tasks, %d operations: %s%n", tasks * scale, ops * scale, longer);
+            if (longer.commandsPerSecond < result.commandsPerSecond / 2) {
+                System.out.printf("REGRESSION: %,.1f commands/s with %d times the tasks, %,.1f commands/s without;"
+                        + " commands cost more as the list grows%n", longer.commandsPerSecond, scale,
+                        result.commandsPerSecond);
+                System.exit(1);
+            }
+        } else if (mode.equals("response")) {
+            runResponses(setup, operations);
+            result = runResponses(setup, operations);
+        } else {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        System.out.printf("%s mode, %d tasks, %d operations (%s)%n", mode, tasks, ops, mix);
+        System.out.println(result);
+
+        String key = mode + "." + tasks + "." + ops + "." + mix;
+        Properties baseline = new Properties();
+        if (Files.exists(baselinePath)) {
+            try (InputStream in = Files.newInputStream(baselinePath)) {
+                baseline.load(in);
+            }
+        }
+        Result expected = Result.load(baseline, key);
+        if (expected == null || options.containsKey("update-baseline")) {
+            result.store(baseline, key);
+            if (baselinePath.getParent() != null) {
+                Files.createDirectories(baselinePath.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(baselinePath)) {
+                baseline.store(out, "Duke load test baseline for this machine, written by LoadHarness");
+            }
+            System.out.println((expected == null ? "No baseline for " + key + " yet, recorded this run: "
+                    : "Baseline updated: ") + baselinePath);
+            return;
+        }
+        String regression = result.regressionFrom(expected, tolerance);
+        if (regression != null) {
+            System.out.println("REGRESSION: " + regression);
+            System.exit(1);
+        }
+        System.out.printf("Within %.0f%% of the baseline.%n", tolerance * 100);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Adds the tasks, then times each operation through getResponse, saving to a scratch data file.
+     */
+    private static Result runResponses(List<String> setup, List<String> operations) throws IOException {
+        Path dir = Files.createTempDirectory("duke-load");
+        Duke duke = new Duke(dir.resolve("tasks.txt").toString());
+        for (String command : setup) {
+            duke.getResponse(command);
+        }
+        long[] latencies = new long[operations.size()];
+        long start = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            long before = System.nanoTime();
+            duke.getResponse(operations.get(i));
+            latencies[i] = System.nanoTime() - before;
+        }
+        long total = System.nanoTime() - start;
+        return new Result(operations.size() * 1e9 / total, latencies);
+    }
+
+    /**
+     * Pipes the whole session into a new Duke process running in a scratch directory.
+     */
+    private static Result runCli(List<String> setup, List<String> operations) throws IOException,
+            InterruptedException {
+        StringBuilder session = new StringBuilder();
+        for (String command : setup) {
+            session.append(command).append('\n');
+        }
+        for (String command : operations) {
+            session.append(command).append('\n');
+        }
+        session.append("bye\n");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "duke.Duke")
+                .directory(Files.createTempDirectory("duke-load").toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(session.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Duke exited with " + process.exitValue());
+        }
+        long total = System.nanoTime() - start;
+        return new Result((setup.size() + operations.size() + 1) * 1e9 / total, null);
+    }
+
+    /**
+     * Throughput and latency percentiles of one run.
+     */
+    static class Result {
+        final double commandsPerSecond;
+        final double p50;
+        final double p90;
+        final double p99;
+        final double max;
+
+        Result(double commandsPerSecond, long[] latencies) {
+            this.commandsPerSecond = commandsPerSecond;
+            if (latencies == null) {
+                p50 = p90 = p99 = max = Double.NaN;
+                return;
+            }
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            p50 = percentile(sorted, 0.50);
+            p90 = percentile(sorted, 0.90);
+            p99 = percentile(sorted, 0.99);
+            max = sorted[sorted.length - 1] / 1e3;
+        }
+
+        private Result(double commandsPerSecond, double p50, double p90, double p99, double max) {
+            this.commandsPerSecond = commandsPerSecond;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        /**
+         * Returns the latency below which the given fraction of operations fall, in microseconds.
+         */
+        private static double percentile(long[] sorted, double fraction) {
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e3;
+        }
+
+        void store(Properties properties, String key) {
+            properties.setProperty(key + ".commandsPerSecond", String.format("%.1f", commandsPerSecond));
+            if (!Double.isNaN(p99)) {
+                properties.setProperty(key + ".p50", String.format("%.1f", p50));
+                properties.setProperty(key + ".p90", String.format("%.1f", p90));
+                properties.setProperty(key + ".p99", String.format("%.1f", p99));
+                properties.setProperty(key + ".max", String.format("%.1f", max));
+            }
+        }
+
+        static Result load(Properties properties, String key) {
+            String rate = properties.getProperty(key + ".commandsPerSecond");
+            if (rate == null) {
+                return null;
+            }
+            return new Result(Double.parseDouble(rate), read(properties, key + ".p50"),
+                    read(properties, key + ".p90"), read(properties, key + ".p99"), read(properties, key + ".max"));
+        }
+
+        private static double read(Properties properties, String key) {
+            String value = properties.getProperty(key);
+            return value == null ? Double.NaN : Double.parseDouble(value);
+        }
+
+        /**
+         * Returns what got worse than the baseline by more than the tolerance, or null if nothing did.
+         */
+        String regressionFrom(Result baseline, double tolerance) {
+            if (commandsPerSecond < baseline.commandsPerSecond * (1 - tolerance)) {
+                return String.format("%.1f commands/s, baseline %.1f", commandsPerSecond, baseline.commandsPerSecond);
+            }
+            if (!Double.isNaN(p99) && !Double.isNaN(baseline.p99) && p99 > baseline.p99 * (1 + tolerance)) {
+                return String.format("p99 %.1f us, baseline %.1f us", p99, baseline.p99);
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            String rate = String.format("%,.1f commands/s", commandsPerSecond);
+            if (Double.isNaN(p99)) {
+                return rate;
+            }
+            return String.format("%s  p50 %.1f us  p90 %.1f us  p99 %.1f us  max %.1f us", rate, p50, p90, p99, max);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+/**
+ * Drives MainWindow headlessly through its text field and send button, and checks that it stays responsive
+ * and does not grow the heap too much as the conversation gets long.
+ * Every message is timed on the JavaFX thread; one in every {@value #SAMPLE_EVERY} is also timed until the
+ * pulse that lays out Duke's reply, which is the latency the user sees.
+ * Limits can be changed with {@code -Dduke.gui.maxRenderMillis} and {@code -Dduke.gui.maxBytesPerMessage}.
+ * Runs headlessly on Monocle as part of {@code gradlew check}, or alone with {@code gradlew guiPerformanceTest}.
+ * The 100k message case takes several minutes, so it only runs with {@code -Dduke.gui.long=true}.
+ */
+@Tag("gui-performance")
+@ExtendWith(ApplicationExtension.class)
+public class MainWindowPerformanceTest {
+    private static final int SAMPLE_EVERY = 32;
+    private static final long MAX_RENDER_MILLIS = Long.getLong("duke.gui.maxRenderMillis", 250);
+    private static final long MAX_BYTES_PER_MESSAGE = Long.getLong("duke.gui.maxBytesPerMessage", 256);
+
+    @TempDir
+    Path dir;
+
+    private Scene scene;
+
+    @Start
+    private void start(Stage stage) throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
+        AnchorPane ap = fxmlLoader.load();
+        scene = new Scene(ap);
+        stage.setScene(scene);
+        fxmlLoader.<MainWindow>getController().setDuke(new Duke(dir.resolve("tasks.txt").toString()));
+        stage.show();
+    }
+
+    @Test
+    public void handleUserInput_10kMessages_staysWithinLimits(FxRobot robot) throws Exception {
+        measure(robot, 10_000);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "duke.gui.long", matches = "true")
+    public void handleUserInput_100kMessages_staysWithinLimits(FxRobot robot) throws Exception {
+        measure(robot, 100_000);
+    }
+
+    /**
+     * Sends the given number of messages, alternating between adding and deleting one task,
+     * so the task list stays tiny and only the conversation grows. Older messages go to the transcript in the
+     * temporary directory, so the heap should stay flat.
+     * Each batch is left to drain before the next, so input is never disabled by backpressure.
+     */
+    private void measure(FxRobot robot, int messages) throws Exception {
+        TextField userInput = robot.lookup("#userInput").queryAs(TextField.class);
+        Button sendButton = robot.lookup("#sendButton").queryButton();
+        VBox dialogContainer = robot.lookup("#dialogContainer").queryAs(VBox.class);
+        long heapBefore = usedHeap();
+
+        long[] handle = new long[messages];
+        long[] render = new long[(messages + SAMPLE_EVERY - 1) / SAMPLE_EVERY];
+        for (int batch = 0; batch < render.length; batch++) {
+            int first = batch * SAMPLE_EVERY;
+            int last = Math.min(first + SAMPLE_EVERY, messages) - 1;
+            WaitForAsyncUtils.asyncFx(() -> {
+                for (int i = first; i < last; i++) {
+                    handle[i] = send(userInput, sendButton, i);
+                }
+            }).get(1, TimeUnit.MINUTES);
+            WaitForAsyncUtils.waitFor(1, TimeUnit.MINUTES,
+                () -> WaitForAsyncUtils.asyncFx(() -> isAnswered(dialogContainer)).get());
+
+            CompletableFuture<Long> laidOut = new CompletableFuture<>();
+            Runnable listener = () -> {
+                if (isAnswered(dialogContainer)) {
+                    laidOut.complete(System.nanoTime());
+                }
+            };
+            long[] sent = new long[1];
+            WaitForAsyncUtils.asyncFx(() -> {
+                scene.addPostLayoutPulseListener(listener);
+                sent[0] = System.nanoTime();
+                handle[last] = send(userInput, sendButton, last);
+            }).get(1, TimeUnit.MINUTES);
+            render[batch] = laidOut.get(1, TimeUnit.MINUTES) - sent[0];
+            WaitForAsyncUtils.asyncFx(() -> scene.removePostLayoutPulseListener(listener)).get();
+        }
+
+        long bytesPerMessage = (usedHeap() - heapBefore) / messages;
+        Arrays.sort(handle);
+        Arrays.sort(render);
+        System.out.printf("%,d messages: FX thread per message p50 %.2f ms p99 %.2f ms, "
+                + "input to reply laid out p50 %.2f ms p99 %.2f ms max %.2f ms, heap %,d bytes/message%n",
+                messages, millis(handle, 0.50), millis(handle, 0.99),
+                millis(render, 0.50), millis(render, 0.99), render[render.length - 1] / 1e6, bytesPerMessage);
+
+        assertTrue(millis(render, 0.99) <= MAX_RENDER_MILLIS,
+                "p99 input-to-layout latency " + millis(render, 0.99) + " ms is over " + MAX_RENDER_MILLIS + " ms");
+        assertTrue(bytesPerMessage <= MAX_BYTES_PER_MESSAGE,
+                "heap grew by " + bytesPerMessage + " bytes per message, over " + MAX_BYTES_PER_MESSAGE);
+    }
+
+    /**
+     * Returns whether every message sent so far has been answered: the newest message is shown at full opacity
+     * once its reply is in, and replies arrive in order.
+     */
+    private static boolean isAnswered(VBox dialogContainer) {
+        List<Node> dialogs = dialogContainer.getChildren();
+        int size = dialogs.size();
+        return dialogs.get(size - 1).getOpacity() == 1 && dialogs.get(size - 2).getOpacity() == 1;
+    }
+
+    private static long send(TextField userInput, Button sendButton, int i) {
+        userInput.setText(i % 2 == 0 ? "todo feed the minions " + i : "delete 1");
+        long start = System.nanoTime();
+        sendButton.fire();
+        return System.nanoTime() - start;
+    }
+
+    private static double millis(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
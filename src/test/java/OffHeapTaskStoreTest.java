@@ -0,0 +1,75 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OffHeapTaskStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void remove_thenAdd_reusesFreedSlotAndKeepsOrder() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        store.add("[T][ ] first", 1);
+        store.add("[D][X] second  (by: Feb 12 2020)", 2);
+        store.remove(0);
+        store.add("[T][ ] third", 3);
+        assertEquals(2, store.size());
+        assertEquals("[D][X] second  (by: Feb 12 2020)", store.get(0));
+        assertEquals("[T][ ] third", store.get(1));
+    }
+
+    @Test
+    public void remove_mostTasks_squeezesTheirTextOut() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        for (int i = 0; i < 20000; i++) {
+            store.add("[T][ ] task number " + i, i);
+        }
+        for (int i = 19999; i >= 0; i--) {
+            if (i % 10 != 0) {
+                store.remove(i);
+            }
+        }
+        store.insert(1, "[E][ ] meet  (from: Oct 10 2020 10:00 AM to: Oct 10 2020 03:00 PM)", 5);
+        assertEquals(2001, store.size());
+        assertTrue(store.textBytes() < 2001 * 20 + (1 << 16), "text of deleted tasks was kept: " + store.textBytes());
+        assertEquals("[T][ ] task number 0", store.get(0));
+        assertEquals("[E][ ] meet  (from: Oct 10 2020 10:00 AM to: Oct 10 2020 03:00 PM)", store.get(1));
+        assertEquals("[T][ ] task number 19990", store.get(2000));
+        assertTrue(store.contains(2000, "19990".getBytes()));
+    }
+
+    @Test
+    public void map_savedFile_readsSameTasksAndDates() throws IOException {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        store.add("[T][ ] first", 1);
+        store.add("[E][ ] meet  (from: Oct 10 2020 10:00 AM to: Oct 11 2020 03:00 PM)", 2);
+        store.add("[D][ ] rent  (by: Oct 1 2026) (every month)", 3);
+        store.remove(0);
+        store.setDone(0, true);
+        Path file = dir.resolve("tasks.slab");
+        store.save(file);
+
+        OffHeapTaskStore mapped = OffHeapTaskStore.map(file);
+        assertEquals(2, mapped.size());
+        assertEquals("[E][X] meet  (from: Oct 10 2020 10:00 AM to: Oct 11 2020 03:00 PM)", mapped.get(0));
+        assertEquals(LocalDateTime.of(2020, 10, 10, 10, 0), mapped.start(0));
+        assertEquals(LocalDateTime.of(2020, 10, 11, 15, 0), mapped.end(0));
+        assertFalse(mapped.repeats(0));
+        assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), mapped.start(1));
+        assertTrue(mapped.repeats(1));
+        mapped.add("[T][ ] fourth", 4);
+        assertEquals("[T][ ] fourth", mapped.get(2));
+        assertNull(mapped.start(2));
+        assertEquals(3, mapped.indexOf(4) + 1);
+    }
+}
@@ -0,0 +1,92 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PageFileBackendTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    public void tree_randomPutsAndDeletes_matchSortedMapAfterReopening() throws Exception {
+        Path file = folder.resolve("tree.pages");
+        TreeMap<Long, String> expected = new TreeMap<>();
+        Random random = new Random(7);
+        try (PageFile pages = new PageFile(file, 8)) {
+            BPlusTree tree = new BPlusTree(pages);
+            for (int i = 0; i < 20000; i++) {
+                long key = random.nextInt(3000);
+                if (random.nextInt(3) == 0) {
+                    tree.delete(key);
+                    expected.remove(key);
+                } else {
+                    String value = "[T][ ] task " + i + (i % 500 == 0 ? "x".repeat(5000) : "");
+                    tree.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+        }
+        try (PageFile pages = new PageFile(file, 8)) {
+            List<Long> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            new BPlusTree(pages).scan(keys, values);
+            assertEquals(new ArrayList<>(expected.keySet()), keys);
+            assertEquals(new ArrayList<>(expected.values()), values);
+        }
+    }
+
+    @Test
+    public void save_oneMarkedTask_writesOnlyItsLeaf() throws Exception {
+        Path file = folder.resolve("tasks.pages");
+        String[] lines = new String[5000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "[T][ ] task " + i;
+        }
+        PageFileBackend backend = new PageFileBackend(file, null);
+        backend.save(new TaskList(lines));
+        backend.close();
+
+        backend = new PageFileBackend(file, null);
+        TaskList tasks = backend.load();
+        assertArrayEquals(lines, tasks.readTaskList());
+        tasks.mark(2500);
+        long before = backend.pagesWritten();
+        backend.save(tasks);
+        assertEquals(1, backend.pagesWritten() - before);
+        backend.close();
+        assertTrue(new PageFileBackend(file, null).load().readTaskList()[2500].startsWith("[T][X]"));
+    }
+
+    @Test
+    public void save_mostTasksDeleted_freesTheirPagesAndShrinksFile() throws Exception {
+        Path file = folder.resolve("tasks.pages");
+        String[] lines = new String[3000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "[T][ ] task number " + i;
+        }
+        PageFileBackend backend = new PageFileBackend(file, null);
+        TaskList tasks = new TaskList(lines);
+        backend.save(tasks);
+        long full = Files.size(file);
+        for (int i = 0; i < 2990; i++) {
+            tasks.delete(0);
+            backend.save(tasks);
+        }
+        backend.close();
+        assertTrue(Files.size(file) < full / 4, "file kept " + Files.size(file) + " bytes of " + full);
+        String[] left = new PageFileBackend(file, null).load().readTaskList();
+        assertEquals(10, left.length);
+        assertEquals("[T][ ] task number 2990", left[0]);
+    }
+}
@@ -0,0 +1,341 @@
+package duke.command;
+
+import java.lang.management.ManagementFactory;
+
+import duke.exception.DukeException;
+import duke.exception.InvalidEventDateTimeException;
+import duke.exception.InvalidRecurrenceException;
+import duke.exception.MissingContentException;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Recurrence;
+import duke.task.Task;
+
+/**
+ * Compares the time and the heap allocated per command by the old split-based parsing, kept below, with the
+ * single-pass {@link FlagParser}, on the same deadline and event commands.
+ * Run with {@code gradlew parserBenchmark}, optionally passing the number of commands per round.
+ */
+public class ParserBenchmark {
+    private static final String[] COMMANDS = {
+        "deadline return the library book before it is overdue /by 2026-11-01",
+        "deadline pay rent /by 2026-12-01 /every month /until 2027-06-01",
+        "event project meeting with the minions /from 2026-11-02 1400 /to 2026-11-02 1530",
+        "event gym /from 2026-11-03 0700 /to 2026-11-03 0800 /every week /times 10",
+    };
+    private static final int ROUNDS = 5;
+    private static Task sink;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args number of commands parsed per round (default 1,000,000).
+     */
+    public static void main(String[] args) throws DukeException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        for (String command : COMMANDS) {
+            if (!legacy(command).toString().equals(FlagParser.parse(command).toTask().toString())) {
+                throw new AssertionError("parsers disagree on: " + command);
+            }
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean last = round == ROUNDS - 1;
+            measure("split Parser", n, last, ParserBenchmark::legacy);
+            measure("FlagParser", n, last, command -> FlagParser.parse(command).toTask());
+        }
+    }
+
+    private static Task legacy(String command) throws DukeException {
+        String[] arr = command.split(" ");
+        if (arr[0].equals("deadline")) {
+            return new Deadline(arr[0], SplitParser.getDeadlineDetail(arr), SplitParser.getDeadlineFull(arr),
+                    SplitParser.getRecurrence(arr));
+        }
+        return SplitParser.getEventFull(arr);
+    }
+
+    /**
+     * Parses n commands and, on the last round, prints the time and the bytes allocated per command.
+     * Earlier rounds only warm up the JIT.
+     */
+    private static void measure(String name, int n, boolean print, Parse parse) throws DukeException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            sink = parse.apply(COMMANDS[i % COMMANDS.length]);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+        if (print) {
+            System.out.printf("%-14s %8.1f ns/command  %8.1f bytes/command%n", name,
+                    (double) nanos / n, (double) bytes / n);
+        }
+    }
+
+    /**
+     * Turns a command into a task.
+     */
+    private interface Parse {
+        Task apply(String command) throws DukeException;
+    }
+
+    /**
+     * The split-based parsing of deadline and event commands that {@link FlagParser} replaced, kept here as the
+     * baseline it is measured against.
+     */
+    private static class SplitParser {
+        private static final String inSecond = "00";
+        private static final int secondToEndIndex = 2;
+        private static final int minSize = 0;
+
+        /**
+         * Returns the detail/content of deadline.
+         * Given that the detail is not empty.
+         *
+         * @param arr an array of the input.
+         * @return the String detail.
+         * @throws MissingContentException if arr is empty.
+         */
+        static String getDeadlineDetail(String[] arr) throws MissingContentException {
+            String detail = "";
+            if (arr.length <= 1) {
+                throw new MissingContentException();
+            }
+            for (int j = 1; j < arr.length; j++) {
+                if (String.valueOf(arr[j]).equals("/by")) {
+                    break;
+                }
+                detail += arr[j];
+                detail += " ";
+            }
+            return detail;
+        }
+
+        /**
+         * Returns index of the input array where indicates time of the deadline.
+         * Given that the arr is not empty.
+         *
+         * @param arr an array of the input.
+         * @return the index of deadline time.
+         * @throws MissingContentException if arr is empty.
+         */
+        private static int getDeadlineTimeIndex(String[] arr) throws MissingContentException {
+            if (arr.length <= 1) {
+                throw new MissingContentException();
+            }
+            int pointer = 0;
+            for (int j = 1; j < arr.length; j++) {
+                if (String.valueOf(arr[j]).equals("/by")) {
+                    pointer = j + 1;
+                    break;
+                }
+            }
+            if (pointer == minSize) {
+                throw new MissingContentException();
+            }
+            return pointer;
+        }
+
+        /**
+         * Gets full deadline detail and date from user command
+         * @param command user input
+         * @return deadline in full detail and date
+         */
+        static String getDeadlineFull(String[] command) {
+            String remaining = "";
+            try {
+                int pointer = getDeadlineTimeIndex(command);
+                int last = getRecurrenceIndex(command);
+                for (int j = pointer; j < last; j++) {
+                    if (String.valueOf(command[j]).equals("/")) {
+                        remaining += "-";
+                    } else {
+                        remaining += command[j];
+                    }
+                    if (j != last - 1) {
+                        remaining += " ";
+                    }
+                }
+            } catch (DukeException e) {
+                return (e.getMessage());
+            }
+            return remaining;
+        }
+
+        /**
+         * Returns index of the input array where indicates starting time of the event.
+         * Given that the arr is not empty.
+         *
+         * @param arr an array of the input.
+         * @return the index of starting time.
+         * @throws MissingContentException if arr is empty.
+         */
+        private static int getEventStartTimeIndex(String[] arr) throws MissingContentException {
+            int startIndex = minSize;
+            for (int j = 1; j < arr.length; j++) {
+                if (String.valueOf(arr[j]).equals("/from")) {
+                    startIndex = j + 1;
+                    break;
+                }
+            }
+            if (startIndex == minSize) {
+                throw new MissingContentException();
+            }
+            return startIndex;
+        }
+
+        /**
+         * Returns event detail from input array.
+         * Given that the arr is not empty.
+         *
+         * @param arr an array of the input.
+         * @return event detail.
+         * @throws MissingContentException if arr is empty.
+         */
+        private static String getEventDetail(String[] arr) throws MissingContentException {
+            if (arr.length <= 1) {
+                throw new MissingContentException();
+            }
+            String detail = "";
+            for (int j = 1; j < arr.length; j++) {
+                if (String.valueOf(arr[j]).equals("/from")) {
+                    break;
+                }
+                detail += arr[j];
+                detail += " ";
+            }
+            assert (detail.length() != minSize) : "Parser could not process event task as its detail is empty";
+            return detail;
+        }
+
+        /**
+         * Returns index of the input array where indicates ending time of the event.
+         * Given that the arr is not empty.
+         *
+         * @param arr an array of the input.
+         * @param startIndex starting index where indicates starting time of event.
+         * @return the index of ending time.
+         */
+        private static int getEventEndTimeIndex(String[] arr, int startIndex) throws MissingContentException {
+            int endIndex = minSize;
+            for (int j = startIndex; j < arr.length; j++) {
+                if (String.valueOf(arr[j]).equals("/to")) {
+                    endIndex = j + 1;
+                    break;
+                }
+            }
+            if (endIndex == minSize) {
+                throw new MissingContentException();
+            }
+            return endIndex;
+        }
+
+        /**
+         * Returns index of the input array where indicates ending time of the event.
+         * Given that the arr is not empty.
+         *
+         * @param arr an array of the input.
+         * @param startIndex starting index where indicates starting time of event.
+         * @param endIndex ending index where indicates ending time of event.
+         * @return an array consists of event start time and event ent time specifically in String.
+         */
+        private static String[] getEventTime(String[] arr, int startIndex, int endIndex) {
+            String[] eventTime = new String[4];
+            String start = "";
+            String end = "";
+            for (int j = startIndex; j < endIndex - 1; j++) {
+                if (String.valueOf(arr[j]).equals("/")) {
+                    start += "-";
+                } else {
+                    start += arr[j];
+                }
+                if (j != endIndex - secondToEndIndex) {
+                    start += " ";
+                }
+            }
+            int last = getRecurrenceIndex(arr);
+            for (int k = endIndex; k < last; k++) {
+                if (String.valueOf(arr[k]).equals("/")) {
+                    end += "-";
+                } else {
+                    end += arr[k];
+                }
+                if (k != last - 1) {
+                    end += " ";
+                }
+            }
+            eventTime[0] = getTime(start);
+            eventTime[1] = getTime(end);
+            return eventTime;
+        }
+
+        /**
+         * Returns index of the input array where the recurrence rule starts.
+         *
+         * @param arr an array of the input.
+         * @return the index of "/every", or the length of the array if the task does not repeat.
+         */
+        private static int getRecurrenceIndex(String[] arr) {
+            for (int j = 1; j < arr.length; j++) {
+                if (arr[j].equals("/every")) {
+                    return j;
+                }
+            }
+            return arr.length;
+        }
+
+        /**
+         * Returns the recurrence rule given by the user, if any.
+         *
+         * @param arr an array of the input.
+         * @return the recurrence, or null if the task does not repeat.
+         * @throws InvalidRecurrenceException if the rule is malformed.
+         */
+        static Recurrence getRecurrence(String[] arr) throws InvalidRecurrenceException {
+            int everyIndex = getRecurrenceIndex(arr);
+            if (everyIndex == arr.length) {
+                return null;
+            }
+            return Recurrence.parse(arr, everyIndex);
+        }
+
+        private static String getTime(String s) throws IndexOutOfBoundsException {
+            String track = String.valueOf(s.charAt(minSize));
+            int tracker = minSize;
+            while (!track.equals(" ")) {
+                tracker++;
+                track = String.valueOf(s.charAt(tracker));
+            }
+            assert tracker != minSize : "Cannot get event time - missing input from user";
+            String date = (s.substring(0, tracker));
+            String time = (s.substring(tracker + 1));
+            String timeFormatted = "";
+            for (int i = 0; i < time.length(); i += 2) {
+                timeFormatted += (time.substring(i, i + 2));
+                timeFormatted += ":";
+            }
+            timeFormatted += inSecond;
+            return date + "T" + timeFormatted;
+        }
+
+        /**
+         * Returns event in correct format based on user's input
+         * @param command input from user
+         * @return event in correct format
+         * @throws MissingContentException if user did not provide event detail
+         * @throws InvalidEventDateTimeException if event is in incorrect date time format
+         * @throws InvalidRecurrenceException if event repeats with a malformed rule
+         */
+        static Event getEventFull(String[] command) throws MissingContentException, InvalidEventDateTimeException,
+                InvalidRecurrenceException {
+            int startIndex = getEventStartTimeIndex(command);
+            int endIndex = getEventEndTimeIndex(command, startIndex);
+            String detail = getEventDetail(command);
+            String start = (getEventTime(command, startIndex, endIndex))[0];
+            String end = (getEventTime(command, startIndex, endIndex))[1];
+            return new Event("event", detail, start, end, getRecurrence(command));
+        }
+    }
+}
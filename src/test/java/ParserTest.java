@@ -1,13 +1,21 @@
 package duke.command;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 
+import duke.exception.InvalidQueryException;
+
 public class ParserTest {
     @Test
     public void test() {
         assertEquals("last command is unable to undo",
                 Parser.parseLastCommandType("list"));
     }
+
+    @Test
+    public void parseQuery_flagWithEmptyValue_throwsInvalidQuery() {
+        assertThrows(InvalidQueryException.class, () -> Query.parse("list /type  /done yes".split(" ")));
+    }
 }
@@ -0,0 +1,56 @@
+package duke.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+public class RecurrenceTest {
+    @Test
+    public void occurrences_monthlyFromEndOfMonth_clampsWithoutDrifting() {
+        Recurrence rule = new Recurrence(Recurrence.Frequency.MONTHLY, LocalDate.parse("2026-04-30"), 0);
+        Iterator<LocalDate> days = rule.occurrences(LocalDate.parse("2026-01-31"),
+                LocalDate.parse("2026-02-01"), LocalDate.parse("2026-12-31"));
+        assertEquals(LocalDate.parse("2026-02-28"), days.next());
+        assertEquals(LocalDate.parse("2026-03-31"), days.next());
+        assertEquals(LocalDate.parse("2026-04-30"), days.next());
+        assertFalse(days.hasNext());
+    }
+
+    @Test
+    public void occurrences_weeklyWithCount_stopsAfterCount() {
+        Recurrence rule = new Recurrence(Recurrence.Frequency.WEEKLY, null, 2);
+        Iterator<LocalDate> days = rule.occurrences(LocalDate.parse("2026-11-02"),
+                LocalDate.parse("2026-11-01"), LocalDate.parse("2027-11-01"));
+        assertEquals(LocalDate.parse("2026-11-02"), days.next());
+        assertEquals(LocalDate.parse("2026-11-09"), days.next());
+        assertFalse(days.hasNext());
+    }
+
+    @Test
+    public void fromString_toString_roundTrips() {
+        assertEquals("every week, 3 times", Recurrence.fromString("every week, 3 times").toString());
+        assertEquals("every day until Dec 31 2026", Recurrence.fromString("every day until Dec 31 2026").toString());
+    }
+
+    @Test
+    public void occurrences_eventSpanningIntoWindow_countsOnFirstDayOfWindow() {
+        Event retreat = new Event("E", "retreat ", false, LocalDateTime.parse("2026-10-18T09:00"),
+                LocalDateTime.parse("2026-10-25T17:00"), null);
+        Iterator<LocalDate> days = retreat.occurrences(LocalDate.parse("2026-10-19"), LocalDate.parse("2026-10-22"));
+        assertEquals(LocalDate.parse("2026-10-19"), days.next());
+        assertFalse(days.hasNext());
+
+        Event shift = new Event("E", "night shift ", false, LocalDateTime.parse("2026-11-01T22:00"),
+                LocalDateTime.parse("2026-11-03T06:00"), new Recurrence(Recurrence.Frequency.WEEKLY, null, 0));
+        days = shift.occurrences(LocalDate.parse("2026-11-10"), LocalDate.parse("2026-11-15"));
+        assertEquals(LocalDate.parse("2026-11-10"), days.next());
+        assertEquals(LocalDate.parse("2026-11-15"), days.next());
+        assertFalse(days.hasNext());
+        assertFalse(shift.occurrences(LocalDate.parse("2026-11-11"), LocalDate.parse("2026-11-14")).hasNext());
+    }
+}
@@ -0,0 +1,76 @@
+package duke;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import duke.command.SessionTrace;
+
+/**
+ * Replays a session recorded with {@code -Dduke.record=...} against a fresh data directory,
+ * sending every command through {@link Duke#getResponse(String)} and timing each one.
+ * By default commands are sent as fast as possible; with {@code --pace recorded} each command waits
+ * until the moment it arrived in the recording, so think time and bursts are kept.
+ *
+ * <p>Run with {@code gradlew replay --args="path/to/session.trace [--pace recorded] [--data tasks.txt]"},
+ * where {@code --data} copies an existing data file in first, so the replay starts from the same tasks.
+ */
+public class SessionReplayer {
+    /**
+     * Runs the replay.
+     *
+     * @param args trace file, then the options --pace fast|recorded and --data PATH.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.out.println("Usage: SessionReplayer TRACE [--pace fast|recorded] [--data TASKS_FILE]");
+            return;
+        }
+        boolean isPaced = false;
+        Path data = null;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--pace")) {
+                isPaced = args[i + 1].equals("recorded");
+            } else if (args[i].equals("--data")) {
+                data = Paths.get(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        List<SessionTrace.Entry> entries = SessionTrace.read(Paths.get(args[0]));
+        if (entries.isEmpty()) {
+            System.out.println("The trace has no commands.");
+            return;
+        }
+        Path file = Files.createTempDirectory("duke-replay").resolve("tasks.txt");
+        if (data != null) {
+            Files.copy(data, file);
+        }
+        Duke duke = new Duke(file.toString());
+
+        long[] latencies = new long[entries.size()];
+        long firstOffset = entries.get(0).getOffsetMicros();
+        long start = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            SessionTrace.Entry entry = entries.get(i);
+            if (isPaced) {
+                long due = start + (entry.getOffsetMicros() - firstOffset) * 1_000;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+            }
+            long before = System.nanoTime();
+            duke.getResponse(entry.getCommand());
+            latencies[i] = System.nanoTime() - before;
+        }
+        long total = System.nanoTime() - start;
+
+        System.out.printf("Replayed %d commands from %s (%s pacing)%n", entries.size(), args[0],
+                isPaced ? "recorded" : "no");
+        System.out.println(new LoadHarness.Result(entries.size() * 1e9 / total, latencies));
+    }
+}
@@ -0,0 +1,39 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SessionTraceTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void read_commandLongerThan64k_roundTrips() throws IOException {
+        Path file = dir.resolve("session.trace");
+        StringBuilder detail = new StringBuilder("todo ");
+        while (detail.length() < 70_000) {
+            detail.append("na\u00efve caf\u00e9 ");
+        }
+        String longCommand = detail.toString();
+
+        SessionTrace trace = new SessionTrace(file);
+        long start = System.nanoTime();
+        trace.append(start + 1_000_000, "list");
+        trace.append(start + 3_000_000, longCommand);
+        trace.append(start + 4_000_000, "bye");
+        trace.close();
+
+        List<SessionTrace.Entry> entries = SessionTrace.read(file);
+        assertEquals(3, entries.size());
+        assertEquals("list", entries.get(0).getCommand());
+        assertEquals(longCommand, entries.get(1).getCommand());
+        assertEquals("bye", entries.get(2).getCommand());
+        assertEquals(3_000, entries.get(2).getOffsetMicros() - entries.get(0).getOffsetMicros());
+    }
+}
@@ -0,0 +1,94 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import duke.task.Todo;
+
+public class StorageTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void merge_insertDeleteAndMarkRanges_keepIdsOfOtherTasks() {
+        String[] lines = new String[10];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "[T][ ] task " + i;
+        }
+        TaskList tasks = new TaskList(lines);
+        long[] ids = ids(tasks);
+
+        List<String> deleted = new ArrayList<>(Arrays.asList(lines));
+        deleted.subList(3, 6).clear();
+        assertTrue(tasks.merge(deleted));
+        assertArrayEquals(new long[] {ids[0], ids[1], ids[2], ids[6], ids[7], ids[8], ids[9]}, ids(tasks));
+
+        assertTrue(tasks.merge(Arrays.asList(lines)));
+        long[] restored = ids(tasks);
+        assertEquals(ids[2], restored[2]);
+        assertTrue(ids[2] < restored[3] && restored[5] < ids[6]);
+        assertArrayEquals(Arrays.copyOfRange(ids, 6, 10), Arrays.copyOfRange(restored, 6, 10));
+
+        List<String> marked = new ArrayList<>(Arrays.asList(lines));
+        for (int i = 2; i < 8; i++) {
+            marked.set(i, "[T][X] task " + i);
+        }
+        marked.add("[T][ ] task 10");
+        marked.add("[T][ ] task 11");
+        assertTrue(tasks.merge(marked));
+        assertArrayEquals(restored, Arrays.copyOf(ids(tasks), 10));
+        assertEquals(marked, Arrays.asList(tasks.readTaskList()));
+    }
+
+    @Test
+    public void isChanged_twoStoragesOnOneFile_seeEachOthersSaves() throws Exception {
+        String path = dir.resolve("tasks.txt").toString();
+        Storage first = new Storage(path);
+        Storage second = new Storage(path);
+        TaskList firstTasks = first.load();
+        firstTasks.add(new Todo("todo", "feed the minions"));
+        first.overwrite(firstTasks);
+        TaskList secondTasks = second.load();
+        assertFalse(first.isChanged());
+        assertFalse(second.isChanged());
+
+        secondTasks.mark(0);
+        second.overwrite(secondTasks);
+        assertTrue(first.isChanged());
+        assertFalse(second.isChanged());
+        try (Storage.Lock lock = first.lock()) {
+            assertTrue(first.reload(firstTasks));
+        }
+        assertEquals("[T][X] feed the minions", firstTasks.readTaskList()[0]);
+
+        firstTasks.unmark(0);
+        first.overwrite(firstTasks);
+        assertTrue(second.isChanged());
+        try (Storage.Lock lock = second.lock()) {
+            assertTrue(second.reload(secondTasks));
+        }
+        assertEquals("[T][ ] feed the minions", secondTasks.readTaskList()[0]);
+        assertFalse(first.isChanged());
+        assertFalse(second.isChanged());
+        first.close();
+        second.close();
+    }
+
+    private static long[] ids(TaskList tasks) {
+        long[] ids = new long[tasks.getValidLen()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tasks.id(i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,68 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class TagBitmapTest {
+    private static List<Long> idsOf(TagBitmap bitmap) {
+        List<Long> ids = new ArrayList<>();
+        bitmap.forEach(id -> ids.add(id));
+        return ids;
+    }
+
+    @Test
+    public void operations_randomSetsAcrossChunks_matchSortedSets() {
+        Random random = new Random(11);
+        TagBitmap a = new TagBitmap();
+        TagBitmap b = new TagBitmap();
+        TreeSet<Long> expectedA = new TreeSet<>();
+        TreeSet<Long> expectedB = new TreeSet<>();
+        for (int i = 0; i < 200000; i++) {
+            long id = random.nextInt(300000);
+            boolean isDense = id < 65536;
+            if (random.nextInt(4) == 0) {
+                a.remove(id);
+                expectedA.remove(id);
+            } else if (isDense || random.nextInt(20) == 0) {
+                a.add(id);
+                expectedA.add(id);
+            }
+            long other = random.nextInt(300000);
+            if (random.nextInt(3) == 0) {
+                b.add(other);
+                expectedB.add(other);
+            }
+        }
+        assertEquals(new ArrayList<>(expectedA), idsOf(a));
+        assertEquals(expectedA.size(), a.cardinality());
+
+        TreeSet<Long> and = new TreeSet<>(expectedA);
+        and.retainAll(expectedB);
+        assertEquals(new ArrayList<>(and), idsOf(TagBitmap.and(a, b)));
+        TreeSet<Long> or = new TreeSet<>(expectedA);
+        or.addAll(expectedB);
+        assertEquals(new ArrayList<>(or), idsOf(TagBitmap.or(a, b)));
+        TreeSet<Long> andNot = new TreeSet<>(expectedA);
+        andNot.removeAll(expectedB);
+        assertEquals(new ArrayList<>(andNot), idsOf(TagBitmap.andNot(a, b)));
+    }
+
+    @Test
+    public void list_tagQueries_keepTasksMatchingEveryTerm() throws Exception {
+        TaskList tasks = new TaskList(new String[] {"[T][ ] restart db #ops #urgent", "[T][ ] write docs #docs",
+            "[T][X] rotate keys #OPS", "[T][ ] fix build #infra #urgent"});
+        assertEquals("Here are the matching tasks in the EVIL list:\n1.[T][ ] restart db #ops #urgent\n",
+                tasks.list(Query.parse(new String[] {"list", "#ops", "#urgent"})));
+        assertEquals("Here are the matching tasks in the EVIL list:\n1.[T][ ] restart db #ops #urgent\n"
+                + "4.[T][ ] fix build #infra #urgent\n",
+                tasks.list(Query.parse(new String[] {"list", "#ops|#infra", "/done", "no"})));
+        assertEquals("Here are the matching tasks in the EVIL list:\n2.[T][ ] write docs #docs\n",
+                tasks.list(Query.parse(new String[] {"list", "-#ops", "-#urgent"})));
+    }
+}
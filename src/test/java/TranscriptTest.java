@@ -0,0 +1,74 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TranscriptTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void add_pastCapacity_keepsNewestInMemoryAndPagesOlderFromFile() throws IOException {
+        Path file = dir.resolve("transcript.txt");
+        try (Transcript transcript = new Transcript(file, 3)) {
+            for (int i = 0; i < 10; i++) {
+                transcript.add(i % 2 == 0, "message " + i + (i == 4 ? "\nsecond line \\ " : ""));
+            }
+            List<Transcript.Message> recent = transcript.recent();
+            assertEquals(3, recent.size());
+            assertEquals("message 7", recent.get(0).getText());
+
+            List<Transcript.Message> older = transcript.older(recent.get(0).getPosition(), 4);
+            assertEquals(4, older.size());
+            assertEquals("message 3", older.get(0).getText());
+            assertEquals("message 4\nsecond line \\ ", older.get(1).getText());
+            assertTrue(older.get(1).isFromUser());
+        }
+    }
+
+    @Test
+    public void open_existingFile_restoresNewestMessages() throws IOException {
+        Path file = dir.resolve("transcript.txt");
+        try (Transcript transcript = new Transcript(file, 5)) {
+            transcript.add(true, "todo read book");
+            transcript.add(false, "Got it.");
+        }
+        try (Transcript transcript = new Transcript(file, 5)) {
+            List<Transcript.Message> recent = transcript.recent();
+            assertEquals(2, recent.size());
+            assertEquals("Got it.", recent.get(1).getText());
+            assertEquals(0, transcript.older(recent.get(0).getPosition(), 5).size());
+        }
+    }
+
+    @Test
+    public void newer_afterOlderPage_readsForwardIntoMemory() throws IOException {
+        Path file = dir.resolve("transcript.txt");
+        try (Transcript transcript = new Transcript(file, 3)) {
+            for (int i = 0; i < 10; i++) {
+                transcript.add(i % 2 == 0, "message " + i + (i == 4 ? "\nsecond line" : ""));
+            }
+            List<Transcript.Message> older = transcript.older(transcript.recent().get(0).getPosition(), 5);
+            assertEquals("message 2", older.get(0).getText());
+
+            List<Transcript.Message> newer = transcript.newer(older.get(0).getPosition(), 4);
+            assertEquals(4, newer.size());
+            assertEquals("message 3", newer.get(0).getText());
+            assertEquals("message 4\nsecond line", newer.get(1).getText());
+            assertEquals("message 6", newer.get(3).getText());
+            assertEquals("message 0", transcript.newer(-1, 1).get(0).getText());
+
+            newer = transcript.newer(newer.get(3).getPosition(), 5);
+            assertEquals(3, newer.size());
+            assertEquals("message 9", newer.get(2).getText());
+            assertEquals(0, transcript.newer(newer.get(2).getPosition(), 5).size());
+        }
+    }
+}
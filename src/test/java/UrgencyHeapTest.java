@@ -0,0 +1,63 @@
+package duke.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class UrgencyHeapTest {
+    private static final String[] PRIORITIES = {"", " {high}", " {medium}", " {low, 2h}"};
+
+    private static String lineFor(Random random, long id) {
+        String priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+        if (random.nextBoolean()) {
+            return "[T][ ] task " + id + " " + priority;
+        }
+        return "[D][ ] task " + id + "  (by: Nov " + (1 + random.nextInt(28)) + " 2026)" + priority;
+    }
+
+    private static int rank(String line) {
+        for (int p = 1; p < PRIORITIES.length; p++) {
+            if (line.endsWith(PRIORITIES[p])) {
+                return p - 1;
+            }
+        }
+        return 3;
+    }
+
+    private static int day(String line) {
+        int by = line.indexOf("(by: Nov ");
+        return by < 0 ? Integer.MAX_VALUE : Integer.parseInt(line.substring(by + 9, line.indexOf(' ', by + 9)));
+    }
+
+    @Test
+    public void first_randomAddsAndRemoves_matchSortedOrder() {
+        Random random = new Random(3);
+        UrgencyHeap heap = new UrgencyHeap();
+        TreeMap<Long, String> open = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(800);
+            if (random.nextInt(3) == 0) {
+                heap.remove(id);
+                open.remove(id);
+            } else {
+                String line = lineFor(random, id);
+                heap.add(id, line);
+                open.put(id, line);
+            }
+            if (i % 250 == 0) {
+                List<Long> expected = new ArrayList<>(open.keySet());
+                expected.sort(Comparator.<Long>comparingInt(k -> rank(open.get(k)))
+                        .thenComparingInt(k -> day(open.get(k))).thenComparing(k -> k));
+                int count = 1 + random.nextInt(40);
+                assertEquals(expected.subList(0, Math.min(count, expected.size())), heap.first(count));
+                assertEquals(open.size(), heap.size());
+            }
+        }
+    }
+}
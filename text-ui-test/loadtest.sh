@@ -0,0 +1,16 @@
+#!/usr/bin/env bash
+
+# run the load test from the project root, passing any options on to LoadHarness,
+# e.g. ./loadtest.sh --mode cli --tasks 5000 --ops 20000
+cd "$(dirname "$0")/.." || exit 1
+
+# drive Duke with the generated session and compare against the baseline in build/load-baseline.properties,
+# which the first run on this machine records
+if ./gradlew loadTest --args="$*"
+then
+    echo "Load test result: PASSED"
+    exit 0
+else
+    echo "Load test result: FAILED"
+    exit 1
+fi